@@ -0,0 +1,58 @@
+// k6 load test for the read and login paths.
+// Usage: k6 run -e BASE_URL=http://localhost:8080 -e VUS=200 loadtest/books.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '60s',
+            exec: 'reads',
+        },
+        logins: {
+            executor: 'constant-arrival-rate',
+            rate: Number(__ENV.LOGIN_RATE || 20),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '60s',
+            preAllocatedVUs: 50,
+            exec: 'login',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{scenario:reads}': ['p(99)<500'],
+    },
+};
+
+function obtainToken() {
+    const response = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ username: 'user', password: 'pass' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(response, { 'login succeeded': r => r.status === 200 });
+    return response.json('token');
+}
+
+export function setup() {
+    return { token: obtainToken() };
+}
+
+export function reads(data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+    const page = http.get(`${BASE_URL}/api/books?limit=50`, params);
+    check(page, { 'page returned': r => r.status === 200 });
+
+    const books = page.json('books');
+    if (books.length > 0) {
+        const book = books[Math.floor(Math.random() * books.length)];
+        check(http.get(`${BASE_URL}/api/books/${book.id}`, params), { 'book returned': r => r.status === 200 });
+    }
+    check(http.get(`${BASE_URL}/api/books/search?q=the`, params), { 'search returned': r => r.status === 200 });
+}
+
+export function login() {
+    obtainToken();
+}
@@ -0,0 +1,107 @@
+// k6 load test that steps up concurrency on uncached BookRepository reads to find where calls start queuing for
+// connections. Each step runs for STEP seconds; a probe scrapes the pool metrics once a second and tags them with
+// the current step, so the summary shows pending borrowers and mean acquire time next to latency per step.
+// Start the app with a catalog large enough to defeat the caches, e.g. SYNTHETIC_BOOKS=100000.
+// Usage: k6 run -e BASE_URL=http://localhost:8080 -e LEVELS=5,10,20,40,80,160 -e STEP=30 loadtest/pool.js
+// With the prod profile, point METRICS_URL at the management port, e.g. -e METRICS_URL=http://localhost:8081.
+import http from 'k6/http';
+import encoding from 'k6/encoding';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const METRICS_URL = __ENV.METRICS_URL || BASE_URL;
+const LEVELS = (__ENV.LEVELS || '5,10,20,40,80,160').split(',').map(Number);
+const STEP = Number(__ENV.STEP || 30);
+const MAX_ID = Number(__ENV.MAX_ID || 100000);
+const AUTHORS = ['Okafor', 'Lindqvist', 'Moreau', 'Tanaka', 'Haddad', 'Novak', 'Brennan', 'Achterberg'];
+
+const poolPending = new Trend('pool_pending');
+const poolActive = new Trend('pool_active');
+const poolAcquireMs = new Trend('pool_acquire_ms', true);
+
+const scenarios = {
+    probe: {
+        executor: 'constant-arrival-rate',
+        rate: 1,
+        timeUnit: '1s',
+        duration: `${LEVELS.length * STEP}s`,
+        preAllocatedVUs: 1,
+        exec: 'probe',
+    },
+};
+const thresholds = { http_req_failed: ['rate<0.01'] };
+
+// One scenario per level so each step's requests carry its concurrency as a tag. The always-true thresholds only
+// make k6 report the tagged sub-metrics.
+LEVELS.forEach((vus, step) => {
+    scenarios[`c${vus}`] = {
+        executor: 'constant-vus',
+        vus,
+        duration: `${STEP}s`,
+        startTime: `${step * STEP}s`,
+        exec: 'reads',
+        tags: { concurrency: String(vus) },
+    };
+    thresholds[`http_req_duration{concurrency:${vus}}`] = ['p(95)>=0'];
+    thresholds[`pool_pending{concurrency:${vus}}`] = ['max>=0'];
+    thresholds[`pool_active{concurrency:${vus}}`] = ['max>=0'];
+    thresholds[`pool_acquire_ms{concurrency:${vus}}`] = ['avg>=0'];
+});
+
+export const options = { scenarios, thresholds };
+
+function login(username) {
+    const response = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ username, password: 'pass' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(response, { 'login succeeded': r => r.status === 200 });
+    return response.json('token');
+}
+
+// On the application port the scrape endpoint needs an admin token.
+export function setup() {
+    return { token: login('user'), adminToken: login('admin'), startedAt: Date.now() };
+}
+
+export function reads(data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+
+    // A random cursor almost never hits the page cache, so every page is a findSummariesAfter query.
+    const cursor = encoding.b64encode(`id:${Math.floor(Math.random() * MAX_ID)}`, 'rawurl');
+    check(http.get(`${BASE_URL}/api/books?after=${cursor}&limit=20`, params),
+        { 'page returned': r => r.status === 200 });
+
+    // Search results are not cached; each one loads its matches with findAllById.
+    const author = AUTHORS[Math.floor(Math.random() * AUTHORS.length)];
+    check(http.get(`${BASE_URL}/api/books/search?q=${author}&limit=20`, params),
+        { 'search returned': r => r.status === 200 });
+}
+
+let previousAcquire = null;
+
+export function probe(data) {
+    const scrape = http.get(`${METRICS_URL}/actuator/prometheus`,
+        { headers: { Authorization: `Bearer ${data.adminToken}` }, tags: { name: 'probe' } });
+    if (scrape.status !== 200)
+        return;
+
+    const level = LEVELS[Math.min(Math.floor((Date.now() - data.startedAt) / 1000 / STEP), LEVELS.length - 1)];
+    const tags = { concurrency: String(level) };
+    poolPending.add(sample(scrape.body, 'hikaricp_connections_pending'), tags);
+    poolActive.add(sample(scrape.body, 'hikaricp_connections_active'), tags);
+
+    // The acquire timer is cumulative; the mean over the last second is the difference between two scrapes.
+    const acquire = {
+        sum: sample(scrape.body, 'hikaricp_connections_acquire_seconds_sum'),
+        count: sample(scrape.body, 'hikaricp_connections_acquire_seconds_count'),
+    };
+    if (previousAcquire && acquire.count > previousAcquire.count)
+        poolAcquireMs.add((acquire.sum - previousAcquire.sum) / (acquire.count - previousAcquire.count) * 1000, tags);
+    previousAcquire = acquire;
+}
+
+function sample(body, name) {
+    const match = body.match(new RegExp(`^${name}\\{[^}]*pool="book-management"[^}]*\\} (\\S+)`, 'm'));
+    return match ? Number(match[1]) : 0;
+}
@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Measures time to first request: starts the packaged application, logs in and times the first authenticated
+# GET /api/books. With lazy initialization /actuator/health answers before the security, JPA and book beans exist,
+# so it is not used as the end point.
+#
+#   loadtest/startup-time.sh                                  # default profile
+#   JAVA_OPTS="-Dspring.aot.enabled=true" loadtest/startup-time.sh --spring.profiles.active=prod,fast
+#
+# Extra arguments are passed to the application. The timer starts just before the JVM is launched. The login user
+# (USERNAME/PASSWORD, user/pass by default) must exist; the fast profile does not seed it, so point the application
+# at a database that already has it.
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/*.jar | grep -v -- '-plain' | head -n 1)}
+PORT=${PORT:-8080}
+LOG=${LOG:-target/startup-time.log}
+USERNAME=${USERNAME:-user}
+PASSWORD=${PASSWORD:-pass}
+
+start=$(date +%s%N)
+# shellcheck disable=SC2086
+java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" "$@" > "$LOG" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null && wait $pid 2>/dev/null || true' EXIT
+
+token=
+until [ -n "$token" ]; do
+  if ! kill -0 "$pid" 2>/dev/null; then
+    echo "Application exited before answering; see $LOG" >&2
+    exit 1
+  fi
+  token=$(curl -sf -X POST "http://localhost:$PORT/auth/login" -H 'Content-Type: application/json' \
+      -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p') || true
+  [ -n "$token" ] || sleep 0.02
+done
+
+curl -sf -o /dev/null -H "Authorization: Bearer $token" "http://localhost:$PORT/api/books"
+
+echo "Time to first request: $(( ($(date +%s%N) - start) / 1000000 )) ms"
@@ -0,0 +1,36 @@
+package com.ofeksag.book_management.benchmark;
+
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.utils.BookMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookMapperBenchmark {
+    private BookRequestDTO request;
+
+    @Setup
+    public void setUp() {
+        request = new BookRequestDTO();
+        request.setTitle("Clean Code");
+        request.setAuthor("Robert C. Martin");
+        request.setPublishedDate(LocalDate.of(2008, 8, 1));
+        request.setIsbn("9780132350884");
+    }
+
+    @Benchmark
+    public Book toEntity() {
+        return BookMapper.toEntity(request);
+    }
+}
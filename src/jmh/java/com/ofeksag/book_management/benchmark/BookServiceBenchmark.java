@@ -0,0 +1,104 @@
+package com.ofeksag.book_management.benchmark;
+
+import com.ofeksag.book_management.BookManagementApplication;
+import com.ofeksag.book_management.dto.BookPageDTO;
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.service.BookBatchService;
+import com.ofeksag.book_management.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs {@link BookService} inside a full application context backed by an in-memory H2 database,
+ * so caches, indexes and Hibernate are exercised exactly as they are behind the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private final AtomicLong nextIsbn = new AtomicLong(9_790_000_000_000L);
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookManagementApplication.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+        bookService = context.getBean(BookService.class);
+
+        List<BookRequestDTO> requests = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++)
+            requests.add(request("Synthetic Title " + i, "Author " + (i % 500)));
+        context.getBean(BookBatchService.class).addNewBooks(requests);
+
+        firstId = bookService.getBooksPage(null, 1).getBooks().get(0).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book getBookById() {
+        return bookService.getBookById(firstId);
+    }
+
+    @Benchmark
+    public BookPageDTO getFirstPage() {
+        return bookService.getBooksPage(null, 100);
+    }
+
+    @Benchmark
+    public List<Book> searchBooks() {
+        return bookService.searchBooks("author 42", 100);
+    }
+
+    @Benchmark
+    public Long addAndDeleteBook() {
+        Book book = new Book("Benchmark Title", "Benchmark Author", LocalDate.of(2020, 1, 1),
+                Long.toString(nextIsbn.getAndIncrement()));
+        Long id = bookService.addNewBook(book).getId();
+        bookService.deleteBook(id);
+        return id;
+    }
+
+    private BookRequestDTO request(String title, String author) {
+        BookRequestDTO request = new BookRequestDTO();
+        request.setTitle(title);
+        request.setAuthor(author);
+        request.setPublishedDate(LocalDate.of(2000, 1, 1));
+        request.setIsbn(Long.toString(nextIsbn.getAndIncrement()));
+        return request;
+    }
+}
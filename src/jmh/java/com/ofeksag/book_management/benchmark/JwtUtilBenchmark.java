@@ -0,0 +1,73 @@
+package com.ofeksag.book_management.benchmark;
+
+import com.ofeksag.book_management.utils.JwtKeyring;
+import com.ofeksag.book_management.utils.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+    private static final long EXPIRATION_MS = 86_400_000L;
+    private static final int DISTINCT_TOKENS = 4096;
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private JwtUtil uncachedEs256JwtUtil;
+    private String token;
+    private String[] distinctTokens;
+    private String[] distinctEs256Tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        jwtUtil = new JwtUtil(EXPIRATION_MS, 10_000);
+        // A zero-sized cache evicts asynchronously, so cycling through many distinct tokens guarantees every
+        // call pays the full parse and signature check.
+        uncachedJwtUtil = new JwtUtil(EXPIRATION_MS, 0);
+        token = jwtUtil.generateToken("admin");
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++)
+            distinctTokens[i] = jwtUtil.generateToken("user" + i);
+
+        JwtKeyring keyring = new JwtKeyring(Files.createTempDirectory("jwt-keyring").toString(), "bench");
+        uncachedEs256JwtUtil = new JwtUtil(EXPIRATION_MS, 0, "ES256", keyring);
+        distinctEs256Tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++)
+            distinctEs256Tokens[i] = uncachedEs256JwtUtil.generateToken("user" + i);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("admin");
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        String distinctToken = distinctTokens[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        return uncachedJwtUtil.extractUsername(distinctToken);
+    }
+
+    @Benchmark
+    public String extractUsernameUncachedEs256() {
+        String distinctToken = distinctEs256Tokens[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        return uncachedEs256JwtUtil.extractUsername(distinctToken);
+    }
+}
@@ -8,9 +8,17 @@ import io.github.cdimascio.dotenv.Dotenv;
 public class BookManagementApplication {
 
 	public static void main(String[] args) {
+		// The AOT build runs main() only to capture bean definitions; it needs no credentials.
+		if (!Boolean.getBoolean("spring.aot.processing"))
+			loadEnvironment();
+
+		SpringApplication.run(BookManagementApplication.class, args);
+	}
+
+	private static void loadEnvironment() {
 		Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
 
-		setMandatory("SECRET_KEY", dotenv);
+		setOptional("SECRET_KEY", dotenv);
 		setMandatory("DB_USERNAME", dotenv);
 		setMandatory("DB_PASSWORD", dotenv);
 		setMandatory("DB_HOST", dotenv);
@@ -19,8 +27,6 @@ public class BookManagementApplication {
 		setMandatory("DB_USER", dotenv);
 		setMandatory("DB_PASS", dotenv);
 		setOptional("PORT", dotenv); // לא חובה אם לא קבעת ידנית
-
-		SpringApplication.run(BookManagementApplication.class, args);
 	}
 
 	private static void setMandatory(String key, Dotenv dotenv) {
@@ -0,0 +1,92 @@
+package com.ofeksag.book_management.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ofeksag.book_management.dto.BookPageDTO;
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.utils.TransactionUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caches books as immutable snapshots. Every read returns a new detached {@link Book}, so callers never share an
+ * instance with each other or with a persistence context.
+ */
+@Component
+public class BookCache implements MeterBinder {
+    private final Cache<Long, Snapshot> booksById;
+    private final Cache<String, Snapshot> booksByIsbn;
+    // Which ISBN entry holds each book, so evicting by id does not have to scan booksByIsbn.
+    private final Map<Long, String> isbnById = new ConcurrentHashMap<>();
+    private final Cache<String, BookPageDTO> pages;
+
+    public BookCache(@Value("${books.cache.spec}") String spec,
+                     @Value("${books.cache.page-spec}") String pageSpec) {
+        this.booksById = Caffeine.from(spec).recordStats().build();
+        this.booksByIsbn = Caffeine.from(spec).recordStats()
+                .<String, Snapshot>evictionListener((isbn, book, cause) -> {
+                    if (book != null)
+                        isbnById.remove(book.id(), isbn);
+                })
+                .build();
+        this.pages = Caffeine.from(pageSpec).recordStats().build();
+    }
+
+    public Book getById(Long id, Function<Long, Book> loader) {
+        return booksById.get(id, key -> Snapshot.of(loader.apply(key))).toBook();
+    }
+
+    public Book getByIsbn(String isbn, Function<String, Book> loader) {
+        return booksByIsbn.get(isbn, key -> {
+            Snapshot book = Snapshot.of(loader.apply(key));
+            isbnById.put(book.id(), key);
+            return book;
+        }).toBook();
+    }
+
+    public BookPageDTO getPage(String key, Function<String, BookPageDTO> loader) {
+        return pages.get(key, loader);
+    }
+
+    public void evict(Long id, String isbn) {
+        TransactionUtil.runNowAndAfterCompletion(() -> {
+            booksById.invalidate(id);
+            if (isbn != null)
+                booksByIsbn.invalidate(isbn);
+            String cachedIsbn = isbnById.remove(id);
+            if (cachedIsbn != null)
+                booksByIsbn.invalidate(cachedIsbn);
+            pages.invalidateAll();
+        });
+    }
+
+    public void evictPages() {
+        TransactionUtil.runNowAndAfterCompletion(pages::invalidateAll);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, booksById, "books.byId");
+        CaffeineCacheMetrics.monitor(registry, booksByIsbn, "books.byIsbn");
+        CaffeineCacheMetrics.monitor(registry, pages, "books.pages");
+    }
+
+    private record Snapshot(Long id, String title, String author, LocalDate publishedDate, String isbn, Long version) {
+        static Snapshot of(Book book) {
+            return new Snapshot(book.getId(), book.getTitle(), book.getAuthor(), book.getPublishedDate(),
+                    book.getIsbn(), book.getVersion());
+        }
+
+        Book toBook() {
+            return new Book(id, title, author, publishedDate, isbn, version);
+        }
+    }
+}
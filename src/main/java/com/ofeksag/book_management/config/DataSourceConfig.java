@@ -0,0 +1,57 @@
+package com.ofeksag.book_management.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+    private static final BeanPostProcessor PASS_THROUGH = new BeanPostProcessor() {
+    };
+
+    // The switches are read at runtime rather than through @ConditionalOnProperty, which AOT would fix at build time.
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment environment) {
+        if (!environment.getProperty("db.concurrency.limit-enabled", Boolean.class, false))
+            return PASS_THROUGH;
+
+        int maxConcurrency = environment.getRequiredProperty("db.concurrency.max-permits", Integer.class);
+        Duration acquireTimeout = environment.getRequiredProperty("db.concurrency.acquire-timeout", Duration.class);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource))
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeout);
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(Environment environment) {
+        if (!environment.getProperty("db.slow-query.enabled", Boolean.class, false))
+            return PASS_THROUGH;
+
+        Duration threshold = environment.getRequiredProperty("db.slow-query.threshold", Duration.class);
+        double sampleRate = environment.getRequiredProperty("db.slow-query.sample-rate", Double.class);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource))
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SlowQueryListener(threshold, sampleRate))
+                            .build();
+                return bean;
+            }
+        };
+    }
+}
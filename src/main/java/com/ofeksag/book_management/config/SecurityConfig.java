@@ -1,7 +1,11 @@
 package com.ofeksag.book_management.config;
 
 import com.ofeksag.book_management.filter.JwtAuthenticationFilter;
+import com.ofeksag.book_management.service.TokenVersionStore;
 import com.ofeksag.book_management.utils.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,18 +19,33 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
 
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private final RequestMatcher managementPortScrape;
+
+    // Scrapes are only anonymous on a dedicated management port; on the application port they need an admin token.
+    public SecurityConfig(@Value("${management.server.port:-1}") int managementPort) {
+        this.managementPortScrape = request -> managementPort > 0 && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter)
             throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(managementPortScrape).permitAll()
                         .requestMatchers("/","/auth/login", "/v3/api-docs/**",
-                                "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                                "/swagger-ui/**", "/swagger-ui.html",
+                                "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/prometheus", "/actuator/metrics/**").hasRole("ADMIN")
                         .requestMatchers("/api/books/**").authenticated()
                         .anyRequest().authenticated())
                 .sessionManagement(session ->
@@ -36,14 +55,23 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
-        return new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil,
+                                                           TokenVersionStore tokenVersionStore,
+                                                           MeterRegistry meterRegistry) {
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenVersionStore, meterRegistry,
+                managementPortScrape);
     }
 
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength}") int strength,
+                                           @Value("${security.bcrypt.threads}") int threads,
+                                           @Value("${security.bcrypt.queue-capacity}") int queueCapacity,
+                                           @Value("${security.bcrypt.max-wait}") Duration maxWait,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, maxWait,
+                meterRegistry);
     }
 
     @Bean
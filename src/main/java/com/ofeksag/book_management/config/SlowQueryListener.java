@@ -0,0 +1,43 @@
+package com.ofeksag.book_management.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs statements, with their bind parameters, that took longer than {@code threshold} to execute.
+ * Only a {@code sampleRate} fraction of slow statements is logged, and nothing is formatted for fast ones.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+    private static final Logger log = LoggerFactory.getLogger("sql.slow");
+
+    private final long thresholdMs;
+    private final double sampleRate;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    public SlowQueryListener(Duration threshold, double sampleRate) {
+        this.thresholdMs = threshold.toMillis();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs || !log.isWarnEnabled())
+            return;
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+            return;
+
+        log.warn("Slow query: {}", logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+    }
+}
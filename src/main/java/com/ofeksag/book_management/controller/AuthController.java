@@ -10,10 +10,12 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 @Tag(
@@ -109,10 +111,48 @@ Submit your login credentials to receive a JWT access token.
                                             """
                             )
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Too many concurrent logins; retry after the Retry-After delay",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Service Unavailable Response",
+                                    value = """
+                                            {
+                                              "error": "Service Unavailable",
+                                              "message": "Too many concurrent logins. Please retry shortly."
+                                            }
+                                            """
+                            )
+                    )
             )
     })
     public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody AuthRequestDTO authRequestDTO) {
         AuthResponseDTO response = authService.authenticate(authRequestDTO);
         return ResponseEntity.ok(response);
     }
+
+    @Operation(
+            summary = "Revoke every token issued to a user",
+            description = """
+Invalidates all tokens previously issued to the user, e.g. after their roles changed.
+The user must log in again to receive a token reflecting their current roles.
+""",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokens revoked"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Only admins can revoke tokens"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/users/{username}/revoke")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String username) {
+        authService.revokeTokens(username);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,12 +1,21 @@
 package com.ofeksag.book_management.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ofeksag.book_management.dto.BookBatchResultDTO;
+import com.ofeksag.book_management.dto.BookPageDTO;
 import com.ofeksag.book_management.dto.BookRequestDTO;
 import com.ofeksag.book_management.dto.BookResponseDTO;
+import com.ofeksag.book_management.dto.BookSummary;
 import com.ofeksag.book_management.dto.ErrorResponseDTO;
 import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.service.BookBatchService;
+import com.ofeksag.book_management.service.BookExportService;
 import com.ofeksag.book_management.service.BookService;
 import com.ofeksag.book_management.utils.BookMapper;
+import com.ofeksag.book_management.utils.ETagUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -17,12 +26,19 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Tag(
@@ -30,7 +46,7 @@ import java.util.List;
         description = """
 This controller manages all book-related operations, including:
 
-Retrieving the full list of books, Creating new book entries, Updating existing books, Deleting books by ID
+Retrieving books page by page, Creating new book entries, Updating existing books, Deleting books by ID
 
 Each endpoint includes predefined request examples in Swagger to help both you Provide valid input and Simulate error scenarios (e.g., invalid data, forbidden fields, duplicates)
 
@@ -41,27 +57,51 @@ Each endpoint includes predefined request examples in Swagger to help both you P
 @Validated
 public class BookController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final BookBatchService bookBatchService;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookExportService bookExportService,
+                          BookBatchService bookBatchService) {
         this.bookService = bookService;
+        this.bookExportService = bookExportService;
+        this.bookBatchService = bookBatchService;
     }
 
     @Operation(
-            summary = "Retrieve all books",
+            summary = "Retrieve books page by page",
             description = """
-            Returns a list of all books in the system.
+            Returns books ordered by ID, one page at a time.
+            
+            When more books are available, the response includes an X-Next-Cursor header.
+            Pass its value as the 'after' parameter to fetch the next page.
+            
+            Use 'fields' to return only some of the book fields, e.g. fields=title,isbn. The id is always returned.
+            
+            Responses carry an ETag. Send it back in If-None-Match to get 304 Not Modified while the catalog is unchanged.
             
             Request must NOT include a body.
             """,
             security = @SecurityRequirement(name = "bearerAuth")
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Books retrieved successfully"),
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Books retrieved successfully",
+                    headers = @Header(
+                            name = NEXT_CURSOR_HEADER,
+                            description = "Opaque cursor for the next page. Absent on the last page."
+                    )
+            ),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Request body was sent with a GET request",
+                    description = "Request body was sent with a GET request, or the cursor, limit or fields are invalid",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponseDTO.class),
@@ -113,8 +153,171 @@ public class BookController {
     })
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<List<BookSummary>> getAllBooks(
+            @Parameter(description = "Cursor returned in the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Maximum number of books to return", example = "100")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Comma-separated book fields to return", example = "title,isbn")
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        String eTag = bookService.getCatalogETag();
+        if (webRequest.checkNotModified(eTag))
+            return null;
+
+        BookPageDTO page = bookService.getBooksPage(after, limit, fields);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        return response.body(page.getBooks());
+    }
+
+    @Operation(
+            summary = "Search books by title and author",
+            description = """
+            Returns books whose title or author contain words starting with every term in 'q', ordered by ID.
+            Matching is case-insensitive, e.g. 'orw 198' finds "1984" by George Orwell.
+            At least one term must be 2 characters or longer; single characters only narrow the results.
+            
+            Request must NOT include a body.
+            """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching books retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Query has no searchable terms, or the limit is invalid"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/search")
+    public ResponseEntity<List<Book>> searchBooks(
+            @Parameter(description = "Search terms, matched as word prefixes", example = "orwell")
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Maximum number of books to return", example = "100")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookService.searchBooks(q, limit));
+    }
+
+    @Operation(
+            summary = "Retrieve a book by ID",
+            description = """
+            Returns a single book.
+            
+            Responses carry an ETag that changes whenever the book changes. Send it back in If-None-Match to get
+            304 Not Modified, or in If-Match on PUT, PATCH and DELETE to make the write conditional.
+            
+            Request must NOT include a body.
+            """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Book unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Request body was sent with a GET request"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Book not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Book Not Found",
+                                    value = """
+                                    {
+                                      "error": "Not Found",
+                                      "message": "Book with ID 123 does not exist."
+                                    }
+                                    """
+                            )
+                    )
+            )
+    })
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/{id}")
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        Book book = bookService.getBookById(id);
+        String eTag = ETagUtil.forVersion(book.getVersion());
+        if (webRequest.checkNotModified(eTag))
+            return null;
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(book);
+    }
+
+    @Operation(
+            summary = "Retrieve a book by ISBN",
+            description = """
+            Returns the book with the given 13-digit ISBN.
+            
+            Request must NOT include a body.
+            """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Request body was sent with a GET request"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn, WebRequest webRequest) {
+        String eTag = bookService.getCatalogETag();
+        if (webRequest.checkNotModified(eTag))
+            return null;
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(bookService.getBookByIsbn(isbn));
+    }
+
+    @Operation(
+            summary = "Export all books as NDJSON",
+            description = """
+            Streams every book in the system as newline-delimited JSON, one book per line, ordered by ID.
+            
+            Rows are read from a database cursor and written as they arrive, so the response size is not limited by server memory.
+            
+            Request must NOT include a body.
+            """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Books streamed successfully",
+                    content = @Content(
+                            mediaType = NDJSON_VALUE,
+                            examples = @ExampleObject(
+                                    name = "NDJSON export",
+                                    value = """
+                                    {"id":1,"title":"1984","author":"George Orwell","publishedDate":"1949-06-08","isbn":"9780451524935"}
+                                    {"id":2,"title":"The Hobbit","author":"J.R.R. Tolkien","publishedDate":"1937-09-21","isbn":"9780547928227"}
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Request body was sent with a GET request"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = bookExportService::exportAsNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
     }
 
     @Operation(
@@ -223,12 +426,90 @@ public class BookController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Create many books in one request",
+            description = """
+                    Creates books in bulk from a JSON array, or from newline-delimited JSON (Content-Type: application/x-ndjson).
+                    
+                    Every item must match the BookRequestDTO schema. Invalid items and duplicate ISBNs are skipped,
+                    and the response reports the outcome of every item in request order.
+                    
+                    Requires ROLE_ADMIN.
+                    """,
+            security = @SecurityRequirement(name = "bearerAuth"),
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "Valid and duplicate books",
+                                    value = """
+                                    [
+                                      {
+                                        "title": "Clean Code",
+                                        "author": "Robert C. Martin",
+                                        "publishedDate": "2008-08-01",
+                                        "isbn": "9780132350884"
+                                      },
+                                      {
+                                        "title": "Clean Code (Duplicate)",
+                                        "author": "Robert C. Martin",
+                                        "publishedDate": "2008-08-01",
+                                        "isbn": "9780132350884"
+                                      }
+                                    ]
+                                    """
+                            )
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed. See each item's status.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BookBatchResultDTO.class),
+                            examples = @ExampleObject(
+                                    name = "Batch report",
+                                    value = """
+                                    {
+                                      "created": 1,
+                                      "rejected": 1,
+                                      "items": [
+                                        { "index": 0, "status": "CREATED", "id": 51 },
+                                        { "index": 1, "status": "DUPLICATE", "message": "The book with ISBN 9780132350884 appears more than once in the batch." }
+                                      ]
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Malformed request body"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden")
+    })
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookBatchResultDTO> addNewBooks(@RequestBody List<BookRequestDTO> bookRequestDTOs) {
+        return ResponseEntity.ok(bookBatchService.addNewBooks(bookRequestDTOs));
+    }
+
+    @Operation(hidden = true)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/batch", consumes = NDJSON_VALUE)
+    public ResponseEntity<BookBatchResultDTO> addNewBooksFromNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(bookBatchService.addNewBooksFromNdjson(body));
+    }
+
     @Operation(
             summary = "Update an existing book",
             description = """ 
                     Updates a book by ID.
                     
                     Request body must match the BookRequestDTO schema.
+                    
+                    Send the ETag from GET /api/books/{id} in If-Match to fail with 412 instead of overwriting a concurrent change.
                    
                     Requires ROLE_ADMIN.
                     """,
@@ -287,16 +568,68 @@ public class BookController {
                             )
                     )
             ),
-            @ApiResponse(responseCode = "409", description = "Duplicate ISBN")
+            @ApiResponse(responseCode = "409", description = "Duplicate ISBN"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag of the book")
     })
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PutMapping("/{id}")
-    public ResponseEntity<BookResponseDTO> updateBook(@PathVariable Long id, @Valid @RequestBody BookRequestDTO bookRequestDTO) {
+    public ResponseEntity<BookResponseDTO> updateBook(
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the book the update is based on", example = "\"v0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody BookRequestDTO bookRequestDTO) {
         Book book = BookMapper.toEntity(bookRequestDTO);
-        BookResponseDTO response = bookService.updateBookAndReturnDTO(id, book);
+        BookResponseDTO response = bookService.updateBookAndReturnDTO(id, book, ETagUtil.expectedVersion(ifMatch));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @Operation(
+            summary = "Partially update a book",
+            description = """
+            Applies a JSON Merge Patch (RFC 7396) to the book with the given ID.
+            
+            Only the fields present in the body are changed; omitted fields keep their current values.
+            All fields are required, so none of them may be set to null.
+            
+            Send the ETag from GET /api/books/{id} in If-Match to fail with 412 instead of overwriting a concurrent change.
+            
+            Requires ROLE_ADMIN.
+            """,
+            security = @SecurityRequirement(name = "bearerAuth"),
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = MERGE_PATCH_VALUE,
+                            examples = @ExampleObject(
+                                    name = "Change the title",
+                                    value = """
+                                    {
+                                      "title": "Clean Code, 2nd Edition"
+                                    }
+                                    """
+                            )
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Patch is not an object, has unknown fields, or leaves the book invalid"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "Duplicate ISBN"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag of the book")
+    })
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BookResponseDTO> patchBook(
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the book the patch is based on", example = "\"v0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) throws IOException {
+        return ResponseEntity.ok(bookService.patchBookAndReturnDTO(id, patch, ETagUtil.expectedVersion(ifMatch)));
+    }
+
     @Operation(
             summary = "Delete a book",
             description = """
@@ -304,6 +637,8 @@ public class BookController {
             
             No body is allowed.
             
+            Send the ETag from GET /api/books/{id} in If-Match to delete only if the book has not changed since.
+            
             Requires ROLE_ADMIN.
             """,
             security = @SecurityRequirement(name = "bearerAuth")
@@ -329,12 +664,16 @@ public class BookController {
                                     """
                             )
                     )
-            )
+            ),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag of the book")
     })
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<BookResponseDTO> deleteBook(@PathVariable Long id) {
-        BookResponseDTO response = bookService.deleteBookAndReturnDTO(id);
+    public ResponseEntity<BookResponseDTO> deleteBook(
+            @PathVariable Long id,
+            @Parameter(description = "ETag of the book to delete", example = "\"v0\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        BookResponseDTO response = bookService.deleteBookAndReturnDTO(id, ETagUtil.expectedVersion(ifMatch));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 }
@@ -0,0 +1,61 @@
+package com.ofeksag.book_management.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of a single book within a batch create request.")
+public class BookBatchItemResultDTO {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    @Schema(description = "Zero-based position of the book in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Result of creating this book", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "ID of the created book, if it was created", example = "45", nullable = true)
+    private Long id;
+
+    @Schema(description = "Reason the book was not created", nullable = true,
+            example = "The book with ISBN 9780132350884 already exists in the system.")
+    private String message;
+
+    public BookBatchItemResultDTO(int index, Status status, Long id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BookBatchItemResultDTO created(int index, Long id) {
+        return new BookBatchItemResultDTO(index, Status.CREATED, id, null);
+    }
+
+    public static BookBatchItemResultDTO duplicate(int index, String message) {
+        return new BookBatchItemResultDTO(index, Status.DUPLICATE, null, message);
+    }
+
+    public static BookBatchItemResultDTO invalid(int index, String message) {
+        return new BookBatchItemResultDTO(index, Status.INVALID, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ofeksag.book_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Per-item report returned by the batch create endpoint.")
+public class BookBatchResultDTO {
+
+    @Schema(description = "Number of books created", example = "98")
+    private final long created;
+
+    @Schema(description = "Number of books rejected as duplicates or invalid", example = "2")
+    private final long rejected;
+
+    @Schema(description = "Result for every submitted book, in request order")
+    private final List<BookBatchItemResultDTO> items;
+
+    public BookBatchResultDTO(List<BookBatchItemResultDTO> items) {
+        this.items = items;
+        this.created = items.stream()
+                .filter(item -> item.getStatus() == BookBatchItemResultDTO.Status.CREATED)
+                .count();
+        this.rejected = items.size() - created;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<BookBatchItemResultDTO> getItems() {
+        return items;
+    }
+}
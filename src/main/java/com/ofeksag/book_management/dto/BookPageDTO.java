@@ -0,0 +1,22 @@
+package com.ofeksag.book_management.dto;
+
+import java.util.List;
+
+public class BookPageDTO {
+
+    private final List<BookSummary> books;
+    private final String nextCursor;
+
+    public BookPageDTO(List<BookSummary> books, String nextCursor) {
+        this.books = books;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookSummary> getBooks() {
+        return books;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ofeksag.book_management.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only view of a book for list responses. Fields not selected with {@code ?fields=} are null and omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "A book in a list response. Only the requested fields are present; id is always included.")
+public record BookSummary(
+        @Schema(example = "1") Long id,
+        @Schema(example = "Clean Architecture") String title,
+        @Schema(example = "Robert C. Martin") String author,
+        @Schema(example = "2020-05-15") LocalDate publishedDate,
+        @Schema(example = "9780134494166") String isbn) {
+
+    public static final List<String> FIELDS = List.of("id", "title", "author", "publishedDate", "isbn");
+}
@@ -1,17 +1,23 @@
 package com.ofeksag.book_management.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
@@ -26,9 +32,11 @@ import java.time.LocalDate;
 )
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Builder
 @JsonIgnoreProperties(ignoreUnknown = false)
 public class Book {
+    public static final int ID_ALLOCATION_SIZE = 50;
 
     @Schema(
             description = "Unique identifier for the book. Auto-generated by the system. Must not be provided in requests.",
@@ -36,7 +44,8 @@ public class Book {
             accessMode = Schema.AccessMode.READ_ONLY
     )
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Schema(
@@ -73,8 +82,16 @@ public class Book {
     @NotNull(message = "ISBN is required")
     @NotBlank(message = "ISBN cannot be blank")
     @Pattern(regexp = "\\d{13}", message = "ISBN must be a 13-digit number")
+    @Column(unique = true)
     private String isbn;
 
+    // Exposed to clients as the ETag of GET /api/books/{id}, not in the body.
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Book() {
     }
 
@@ -111,6 +128,10 @@ public class Book {
         return isbn;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -5,6 +5,7 @@ import com.ofeksag.book_management.dto.AuthResponseDTO;
 import com.ofeksag.book_management.dto.BookResponseDTO;
 import com.ofeksag.book_management.dto.ErrorResponseDTO;
 import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -32,6 +33,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDTO> handlePreconditionFailedException(PreconditionFailedException ex) {
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO("Precondition Failed", ex.getMessage());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUserNotFoundException(UserNotFoundException ex) {
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO("Not Found", ex.getMessage());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<BookResponseDTO> handleIllegalArgument(IllegalArgumentException ex) {
         BookResponseDTO response = new BookResponseDTO(ex.getMessage());
@@ -87,6 +100,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO("Service Unavailable", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponseDTO);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponseDTO> handleAccessDenied(AccessDeniedException ex) {
         ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO("Access Denied",
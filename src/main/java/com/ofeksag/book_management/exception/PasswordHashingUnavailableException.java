@@ -0,0 +1,7 @@
+package com.ofeksag.book_management.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ofeksag.book_management.exception;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -3,28 +3,50 @@ package com.ofeksag.book_management.filter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ofeksag.book_management.dto.ErrorResponseDTO;
 import com.ofeksag.book_management.exception.JwtDeserializationException;
+import com.ofeksag.book_management.service.TokenVersionStore;
 import com.ofeksag.book_management.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionStore tokenVersionStore;
+    private final MeterRegistry meterRegistry;
+    private final Timer validVerificationTimer;
+    private final Timer invalidVerificationTimer;
+    private final RequestMatcher anonymousRequests;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   TokenVersionStore tokenVersionStore, MeterRegistry meterRegistry,
+                                   RequestMatcher anonymousRequests) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionStore = tokenVersionStore;
+        this.meterRegistry = meterRegistry;
+        this.validVerificationTimer = jwtVerificationTimer(meterRegistry, "valid");
+        this.invalidVerificationTimer = jwtVerificationTimer(meterRegistry, "invalid");
+        this.anonymousRequests = anonymousRequests;
     }
 
     @Override
@@ -36,7 +58,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 path.startsWith("/swagger-ui") ||
                 path.startsWith("/swagger-ui.html") ||
                 path.startsWith("/v3/api-docs") ||
-                path.startsWith("/auth/login")) {
+                path.startsWith("/auth/login") ||
+                path.equals("/actuator/health") ||
+                anonymousRequests.matches(request)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -49,9 +73,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         try {
-            String username = jwtUtil.extractUsername(jwt);
-            if (username != null && jwtUtil.validateToken(jwt, username)) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Timer.Sample verification = Timer.start(meterRegistry);
+            Claims claims;
+            String username;
+            boolean valid;
+            try {
+                claims = jwtUtil.extractAllClaims(jwt);
+                username = claims.getSubject();
+                valid = username != null && jwtUtil.validateToken(claims, username);
+            } catch (RuntimeException e) {
+                verification.stop(invalidVerificationTimer);
+                throw e;
+            }
+            verification.stop(valid ? validVerificationTimer : invalidVerificationTimer);
+
+            if (valid) {
+                // Tokens issued before versions were embedded count as version 0, so any revocation rejects them too.
+                Number tokenVersion = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Number.class);
+                long version = tokenVersion == null ? 0 : tokenVersion.longValue();
+                if (!tokenVersionStore.isCurrent(username, version)) {
+                    sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED,
+                            "Revoked Token", "Token has been revoked. Please log in again.");
+                    return;
+                }
+
+                // Tokens issued before roles were embedded still need the user lookup.
+                UserDetails userDetails = tokenVersion != null
+                        ? userFromClaims(username, claims)
+                        : userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails,
                                 null, userDetails.getAuthorities());
@@ -70,6 +119,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private static Timer jwtVerificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Time spent parsing and validating the request's JWT")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private UserDetails userFromClaims(String username, Claims claims) {
+        List<?> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+        return new User(username, "", authorities);
+    }
+
     private void sendErrorResponse(HttpServletResponse response, int status, String error, String message)
             throws IOException {
         ErrorResponseDTO errorResponseDTO = new ErrorResponseDTO(error, message);
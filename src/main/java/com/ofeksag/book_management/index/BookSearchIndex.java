@@ -0,0 +1,263 @@
+package com.ofeksag.book_management.index;
+
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ * <p>
+ * Text is split on anything that is not a letter or digit and lower-cased. Every query token must match the
+ * start of some term of the book, so {@code "orw 198"} finds "1984" by George Orwell. Results come back in
+ * ascending id order. The index is rebuilt from the database on startup and updated after each commit.
+ * <p>
+ * Candidates come from the most selective token of at least {@link #MIN_PREFIX_LENGTH} characters, so the work
+ * before the first result is bounded. Each book is also listed under the first two characters of its terms. A
+ * short token, or one that expands to more than {@code MAX_PREFIX_TERMS} terms, reads that single list instead
+ * of merging every term in its range.
+ */
+@Component
+public class BookSearchIndex {
+    public static final int MIN_PREFIX_LENGTH = 2;
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final StampedLock lock = new StampedLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<String, PostingList> shortPrefixPostings = new HashMap<>();
+    private final Map<Long, String[]> termsByBook = new HashMap<>();
+
+    public BookSearchIndex(BookRepository bookRepository, EntityManager entityManager) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long stamp = lock.writeLock();
+        try (Stream<Book> stored = bookRepository.streamAllOrderedById()) {
+            postings.clear();
+            shortPrefixPostings.clear();
+            termsByBook.clear();
+            stored.forEach(book -> {
+                put(book.getId(), book.getTitle(), book.getAuthor());
+                entityManager.detach(book);
+            });
+            log.info("Search index warmed with {} books and {} terms", termsByBook.size(), postings.size());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void index(long id, String title, String author) {
+        long stamp = lock.writeLock();
+        try {
+            removeTerms(id);
+            put(id, title, author);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            removeTerms(id);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty())
+            return List.of();
+
+        long stamp = lock.readLock();
+        try {
+            // Drive the scan from the most selective token and check every token against each candidate's own terms.
+            Collection<PostingList> driverPostings = null;
+            long driverCost = Long.MAX_VALUE;
+            for (String token : tokens) {
+                if (token.length() < MIN_PREFIX_LENGTH)
+                    continue;
+                Collection<PostingList> matching = candidatePostings(token);
+                long cost = 0;
+                for (PostingList postingList : matching)
+                    cost += postingList.size();
+                if (cost == 0)
+                    return List.of();
+                if (cost < driverCost) {
+                    driverPostings = matching;
+                    driverCost = cost;
+                }
+            }
+            if (driverPostings == null)
+                return List.of();
+
+            List<Long> results = new ArrayList<>(Math.min(limit, 64));
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(driverPostings.size());
+            for (PostingList postingList : driverPostings)
+                cursors.add(new Cursor(postingList));
+
+            long previous = -1;
+            while (!cursors.isEmpty() && results.size() < limit) {
+                Cursor cursor = cursors.poll();
+                long id = cursor.current();
+                if (cursor.advance())
+                    cursors.add(cursor);
+                if (id == previous)
+                    continue;
+                previous = id;
+                if (matchesAll(termsByBook.get(id), tokens))
+                    results.add(id);
+            }
+            return results;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null)
+            return List.of();
+
+        Set<String> tokens = new LinkedHashSet<>();
+        String folded = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private void put(long id, String title, String author) {
+        List<String> terms = tokenize(title + " " + author);
+        for (String term : terms)
+            postings.computeIfAbsent(term, key -> new PostingList()).add(id);
+        for (String prefix : shortPrefixes(terms))
+            shortPrefixPostings.computeIfAbsent(prefix, key -> new PostingList()).add(id);
+        termsByBook.put(id, terms.toArray(String[]::new));
+    }
+
+    private void removeTerms(long id) {
+        String[] terms = termsByBook.remove(id);
+        if (terms == null)
+            return;
+
+        for (String term : terms) {
+            PostingList postingList = postings.get(term);
+            postingList.remove(id);
+            if (postingList.isEmpty())
+                postings.remove(term);
+        }
+        for (String prefix : shortPrefixes(List.of(terms))) {
+            PostingList postingList = shortPrefixPostings.get(prefix);
+            postingList.remove(id);
+            if (postingList.isEmpty())
+                shortPrefixPostings.remove(prefix);
+        }
+    }
+
+    private static Set<String> shortPrefixes(List<String> terms) {
+        Set<String> prefixes = new HashSet<>();
+        for (String term : terms) {
+            if (term.length() >= MIN_PREFIX_LENGTH)
+                prefixes.add(term.substring(0, MIN_PREFIX_LENGTH));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Posting lists whose union holds every book with a term starting with {@code token}. A token that expands to
+     * more than {@link #MAX_PREFIX_TERMS} terms gets its two-character list instead, a superset the caller narrows
+     * down with {@link #matchesAll}.
+     */
+    private Collection<PostingList> candidatePostings(String token) {
+        if (token.length() > MIN_PREFIX_LENGTH) {
+            List<PostingList> matching = new ArrayList<>();
+            for (PostingList postingList : prefixRange(token).values()) {
+                if (matching.size() == MAX_PREFIX_TERMS) {
+                    matching = null;
+                    break;
+                }
+                matching.add(postingList);
+            }
+            if (matching != null)
+                return matching;
+        }
+        PostingList shortPrefix = shortPrefixPostings.get(token.substring(0, MIN_PREFIX_LENGTH));
+        return shortPrefix == null ? List.of() : List.of(shortPrefix);
+    }
+
+    private NavigableMap<String, PostingList> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean matchesAll(String[] terms, List<String> prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found)
+                return false;
+        }
+        return true;
+    }
+
+    private static class Cursor implements Comparable<Cursor> {
+        private final PostingList postingList;
+        private int position;
+
+        Cursor(PostingList postingList) {
+            this.postingList = postingList;
+        }
+
+        long current() {
+            return postingList.get(position);
+        }
+
+        boolean advance() {
+            return ++position < postingList.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(current(), other.current());
+        }
+    }
+}
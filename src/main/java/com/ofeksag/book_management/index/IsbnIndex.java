@@ -0,0 +1,107 @@
+package com.ofeksag.book_management.index;
+
+import com.ofeksag.book_management.repository.BookRepository;
+import com.ofeksag.book_management.utils.LongHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory set of every stored ISBN, packed as 13-digit longs.
+ * <p>
+ * A miss means the ISBN is free as far as this node knows, so callers can insert without querying first;
+ * the unique constraint on {@code book.isbn} remains the source of truth. A hit may be stale and must be
+ * confirmed against the database.
+ */
+@Component
+public class IsbnIndex {
+    private static final Logger log = LoggerFactory.getLogger(IsbnIndex.class);
+    private static final long UNINDEXABLE = -1L;
+
+    private final BookRepository bookRepository;
+    private final StampedLock lock = new StampedLock();
+    private final LongHashSet isbns = new LongHashSet(1024);
+
+    public IsbnIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long stamp = lock.writeLock();
+        try (Stream<String> stored = bookRepository.streamAllIsbns()) {
+            isbns.clear();
+            stored.mapToLong(IsbnIndex::toKey)
+                    .filter(key -> key != UNINDEXABLE)
+                    .forEach(isbns::add);
+            log.info("ISBN index warmed with {} entries", isbns.size());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean mightContain(String isbn) {
+        long key = toKey(isbn);
+        if (key == UNINDEXABLE)
+            return true;
+
+        long stamp = lock.tryOptimisticRead();
+        boolean found = isbns.contains(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = isbns.contains(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    public void add(String isbn) {
+        long key = toKey(isbn);
+        if (key == UNINDEXABLE)
+            return;
+
+        long stamp = lock.writeLock();
+        try {
+            isbns.add(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(String isbn) {
+        long key = toKey(isbn);
+        if (key == UNINDEXABLE)
+            return;
+
+        long stamp = lock.writeLock();
+        try {
+            isbns.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long toKey(String isbn) {
+        if (isbn == null || isbn.length() != 13)
+            return UNINDEXABLE;
+
+        long key = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            char digit = isbn.charAt(i);
+            if (digit < '0' || digit > '9')
+                return UNINDEXABLE;
+            key = key * 10 + (digit - '0');
+        }
+        return key;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ofeksag.book_management.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, duplicate-free list of book ids for a single search term. Ids are mostly appended in ascending
+ * order, so inserts are usually O(1); out-of-order inserts and removals shift the tail.
+ * Not thread-safe; {@link BookSearchIndex} guards it.
+ */
+class PostingList {
+    private long[] ids = new long[4];
+    private int size;
+
+    void add(long id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0)
+            return;
+
+        int insertAt = -position - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0)
+            return;
+
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length)
+            ids = Arrays.copyOf(ids, size * 2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ofeksag.book_management.migration;
+
+import com.ofeksag.book_management.entity.Book;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves {@code book_seq} past the highest existing book id and sets its increment to the id allocation size.
+ * <p>
+ * Databases that predate the sequence hold ids the sequence has never handed out. Hibernate's pooled optimizer
+ * treats a sequence value {@code hi} as owning {@code (hi - allocationSize, hi]}, so the next value must be at least
+ * {@code max(id) + allocationSize}. The sequence is only ever moved forward.
+ * <p>
+ * Implements {@link JavaMigration} directly so the version is declared here rather than in the class name.
+ */
+@Component
+public class BookSequenceMigration implements JavaMigration {
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("2");
+    }
+
+    @Override
+    public String getDescription() {
+        return "Align book sequence";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+
+        try (Statement statement = connection.createStatement()) {
+            long maxId = queryLong(statement, "select coalesce(max(id), 0) from book");
+            long next = queryLong(statement, postgres ? "select nextval('book_seq')" : "select next value for book_seq");
+
+            long required = maxId + Book.ID_ALLOCATION_SIZE;
+            statement.execute("alter sequence book_seq increment by " + Book.ID_ALLOCATION_SIZE
+                    + (maxId > 0 && next < required ? " restart with " + required : ""));
+        }
+    }
+
+    private static long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
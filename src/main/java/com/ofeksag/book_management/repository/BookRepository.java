@@ -1,10 +1,55 @@
 package com.ofeksag.book_management.repository;
 
 import com.ofeksag.book_management.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookSummaryRepository {
+    int EXPORT_FETCH_SIZE = 500;
+
     boolean existsByIsbn(String isbn);
-}
\ No newline at end of file
+
+    Optional<Book> findByIsbn(String isbn);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllOrderedById();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select b.isbn from Book b")
+    Stream<String> streamAllIsbns();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.title = :title, b.author = :author, b.publishedDate = :publishedDate, "
+            + "b.isbn = :isbn, b.version = b.version + 1 "
+            + "where b.id = :id and (:version is null or b.version = :version)")
+    int updateById(@Param("id") Long id, @Param("version") Long expectedVersion, @Param("title") String title,
+                   @Param("author") String author, @Param("publishedDate") LocalDate publishedDate,
+                   @Param("isbn") String isbn);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Book b where b.id = :id and (:version is null or b.version = :version)")
+    int deleteByIdReturningCount(@Param("id") Long id, @Param("version") Long expectedVersion);
+}
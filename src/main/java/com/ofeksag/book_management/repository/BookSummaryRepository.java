@@ -0,0 +1,15 @@
+package com.ofeksag.book_management.repository;
+
+import com.ofeksag.book_management.dto.BookSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookSummaryRepository {
+
+    /**
+     * Reads the given {@link BookSummary#FIELDS} of the books after {@code afterId}, in id order, without loading
+     * {@code Book} entities. The id is always selected.
+     */
+    List<BookSummary> findSummariesAfter(long afterId, Collection<String> fields, int limit);
+}
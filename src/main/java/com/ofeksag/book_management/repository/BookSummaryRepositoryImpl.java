@@ -0,0 +1,51 @@
+package com.ofeksag.book_management.repository;
+
+import com.ofeksag.book_management.dto.BookSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class BookSummaryRepositoryImpl implements BookSummaryRepository {
+    private final EntityManager entityManager;
+
+    BookSummaryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookSummary> findSummariesAfter(long afterId, Collection<String> fields, int limit) {
+        List<String> selected = BookSummary.FIELDS.stream()
+                .filter(field -> field.equals("id") || fields.contains(field))
+                .collect(Collectors.toList());
+        String select = selected.stream()
+                .map(field -> "b." + field + " as " + field)
+                .collect(Collectors.joining(", "));
+
+        List<Tuple> rows = entityManager.createQuery(
+                        "select " + select + " from Book b where b.id > :afterId order by b.id", Tuple.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .setHint(AvailableHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .getResultList();
+
+        List<BookSummary> summaries = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            summaries.add(new BookSummary(
+                    row.get("id", Long.class),
+                    selected.contains("title") ? row.get("title", String.class) : null,
+                    selected.contains("author") ? row.get("author", String.class) : null,
+                    selected.contains("publishedDate") ? row.get("publishedDate", LocalDate.class) : null,
+                    selected.contains("isbn") ? row.get("isbn", String.class) : null));
+        }
+        return summaries;
+    }
+}
@@ -2,8 +2,29 @@ package com.ofeksag.book_management.repository;
 
 import com.ofeksag.book_management.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("select u.username as username, u.tokenVersion as tokenVersion from User u")
+    List<UserTokenVersion> findAllTokenVersions();
+
+    @Query("select u.tokenVersion from User u where u.username = :username")
+    Optional<Long> findTokenVersion(@Param("username") String username);
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
+
+    interface UserTokenVersion {
+        String getUsername();
+
+        long getTokenVersion();
+    }
+}
@@ -3,23 +3,32 @@ package com.ofeksag.book_management.service;
 import com.ofeksag.book_management.dto.AuthRequestDTO;
 import com.ofeksag.book_management.dto.AuthResponseDTO;
 import com.ofeksag.book_management.utils.JwtUtil;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Service
+@Timed(value = "auth.service", histogram = true)
 public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final TokenVersionStore tokenVersionStore;
 
     @Autowired
-    public AuthService(AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public AuthService(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                       TokenVersionStore tokenVersionStore) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.tokenVersionStore = tokenVersionStore;
     }
 
     public AuthResponseDTO authenticate(AuthRequestDTO authRequestDTO) {
@@ -27,7 +36,15 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(authRequestDTO.getUsername(), authRequestDTO.getPassword())
         );
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = jwtUtil.generateToken(userDetails.getUsername());
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        Long tokenVersion = tokenVersionStore.current(userDetails.getUsername());
+        String token = jwtUtil.generateToken(userDetails.getUsername(), roles, tokenVersion == null ? 0 : tokenVersion);
         return new AuthResponseDTO(token);
     }
-}
\ No newline at end of file
+
+    public void revokeTokens(String username) {
+        tokenVersionStore.revoke(username);
+    }
+}
@@ -0,0 +1,190 @@
+package com.ofeksag.book_management.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofeksag.book_management.cache.BookCache;
+import com.ofeksag.book_management.dto.BookBatchItemResultDTO;
+import com.ofeksag.book_management.dto.BookBatchResultDTO;
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.exception.BookAlreadyExistsException;
+import com.ofeksag.book_management.index.BookSearchIndex;
+import com.ofeksag.book_management.index.IsbnIndex;
+import com.ofeksag.book_management.repository.BookRepository;
+import com.ofeksag.book_management.utils.BookMapper;
+import com.ofeksag.book_management.utils.TransactionUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class BookBatchService {
+    private final BookRepository bookRepository;
+    private final IsbnIndex isbnIndex;
+    private final BookSearchIndex searchIndex;
+    private final CatalogVersion catalogVersion;
+    private final BookCache bookCache;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BookBatchService(BookRepository bookRepository, IsbnIndex isbnIndex, BookSearchIndex searchIndex,
+                            CatalogVersion catalogVersion, BookCache bookCache, EntityManager entityManager,
+                            Validator validator, ObjectMapper objectMapper,
+                            @Value("${books.batch.chunk-size}") int chunkSize) {
+        this.bookRepository = bookRepository;
+        this.isbnIndex = isbnIndex;
+        this.searchIndex = searchIndex;
+        this.catalogVersion = catalogVersion;
+        this.bookCache = bookCache;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public BookBatchResultDTO addNewBooks(List<BookRequestDTO> requests) {
+        return addNewBooks(requests.iterator());
+    }
+
+    @Transactional
+    public BookBatchResultDTO addNewBooksFromNdjson(InputStream inputStream) throws IOException {
+        try (MappingIterator<BookRequestDTO> requests = objectMapper.readerFor(BookRequestDTO.class)
+                .readValues(inputStream)) {
+            return addNewBooks(new NdjsonIterator(requests));
+        }
+    }
+
+    private BookBatchResultDTO addNewBooks(Iterator<BookRequestDTO> requests) {
+        List<BookBatchItemResultDTO> results = new ArrayList<>();
+        Set<String> seenIsbns = new HashSet<>();
+        List<BookRequestDTO> chunk = new ArrayList<>(chunkSize);
+
+        while (requests.hasNext()) {
+            chunk.add(requests.next());
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, results.size(), seenIsbns, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            insertChunk(chunk, results.size(), seenIsbns, results);
+
+        return new BookBatchResultDTO(results);
+    }
+
+    private void insertChunk(List<BookRequestDTO> chunk, int firstIndex, Set<String> seenIsbns,
+                             List<BookBatchItemResultDTO> results) {
+        BookBatchItemResultDTO[] chunkResults = new BookBatchItemResultDTO[chunk.size()];
+        Map<Integer, Book> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BookRequestDTO request = chunk.get(i);
+            String violations = validate(request);
+            if (violations != null) {
+                chunkResults[i] = BookBatchItemResultDTO.invalid(firstIndex + i, violations);
+            } else if (!seenIsbns.add(request.getIsbn())) {
+                chunkResults[i] = BookBatchItemResultDTO.duplicate(firstIndex + i,
+                        "The book with ISBN " + request.getIsbn() + " appears more than once in the batch.");
+            } else {
+                candidates.put(i, BookMapper.toEntity(request));
+            }
+        }
+
+        Set<String> existingIsbns = candidates.isEmpty() ? Set.of() : bookRepository.findExistingIsbns(
+                candidates.values().stream().map(Book::getIsbn).collect(Collectors.toList()));
+
+        List<Book> toInsert = new ArrayList<>(candidates.size());
+        candidates.forEach((i, book) -> {
+            if (existingIsbns.contains(book.getIsbn()))
+                chunkResults[i] = BookBatchItemResultDTO.duplicate(firstIndex + i,
+                        "The book with ISBN " + book.getIsbn() + " already exists in the system.");
+            else
+                toInsert.add(book);
+        });
+
+        try {
+            bookRepository.saveAllAndFlush(toInsert);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("A book in the batch was created concurrently by another request."
+                    + " Nothing was saved; retry the batch.");
+        }
+        entityManager.clear();
+        toInsert.forEach(book -> isbnIndex.add(book.getIsbn()));
+        if (!toInsert.isEmpty()) {
+            List<Book> inserted = List.copyOf(toInsert);
+            TransactionUtil.runAfterCommit(() -> inserted.forEach(book ->
+                    searchIndex.index(book.getId(), book.getTitle(), book.getAuthor())));
+            bookCache.evictPages();
+            catalogVersion.recordChange(null);
+        }
+
+        candidates.forEach((i, book) -> {
+            if (chunkResults[i] == null)
+                chunkResults[i] = BookBatchItemResultDTO.created(firstIndex + i, book.getId());
+        });
+        results.addAll(List.of(chunkResults));
+    }
+
+    private String validate(BookRequestDTO request) {
+        if (request == null)
+            return "Book must not be null.";
+
+        Set<ConstraintViolation<BookRequestDTO>> violations = validator.validate(request);
+        if (violations.isEmpty())
+            return null;
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static class NdjsonIterator implements Iterator<BookRequestDTO> {
+        private final MappingIterator<BookRequestDTO> delegate;
+
+        NdjsonIterator(MappingIterator<BookRequestDTO> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return delegate.hasNext();
+            } catch (RuntimeException e) {
+                throw malformedLine(e);
+            }
+        }
+
+        @Override
+        public BookRequestDTO next() {
+            try {
+                return delegate.next();
+            } catch (RuntimeException e) {
+                throw malformedLine(e);
+            }
+        }
+
+        private IllegalArgumentException malformedLine(RuntimeException e) {
+            return new IllegalArgumentException("Malformed NDJSON near line "
+                    + delegate.getCurrentLocation().getLineNr() + ": " + e.getMessage());
+        }
+    }
+}
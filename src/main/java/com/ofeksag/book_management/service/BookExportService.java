@@ -0,0 +1,59 @@
+package com.ofeksag.book_management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class BookExportService {
+    private static final Logger log = LoggerFactory.getLogger(BookExportService.class);
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public BookExportService(BookRepository bookRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAsNdjson(OutputStream outputStream) throws IOException {
+        long startedAt = System.nanoTime();
+        long rows = 0;
+
+        try (Stream<Book> books = bookRepository.streamAllOrderedById();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                generator.writeObject(book);
+                generator.writeRaw('\n');
+                entityManager.detach(book);
+
+                if (++rows % BookRepository.EXPORT_FETCH_SIZE == 0)
+                    generator.flush();
+            }
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        log.info("Exported {} books in {} ms ({} rows/sec)", rows, elapsedNanos / 1_000_000,
+                rows * 1_000_000_000L / elapsedNanos);
+        return rows;
+    }
+}
@@ -1,38 +1,155 @@
 package com.ofeksag.book_management.service;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.ofeksag.book_management.cache.BookCache;
+import com.ofeksag.book_management.dto.BookPageDTO;
+import com.ofeksag.book_management.dto.BookRequestDTO;
 import com.ofeksag.book_management.dto.BookResponseDTO;
+import com.ofeksag.book_management.dto.BookSummary;
 import com.ofeksag.book_management.exception.BookAlreadyExistsException;
 import com.ofeksag.book_management.exception.BookNotFoundException;
+import com.ofeksag.book_management.exception.PreconditionFailedException;
+import com.ofeksag.book_management.index.BookSearchIndex;
+import com.ofeksag.book_management.index.IsbnIndex;
 import com.ofeksag.book_management.repository.BookRepository;
+import com.ofeksag.book_management.utils.CursorUtil;
+import com.ofeksag.book_management.utils.TransactionUtil;
 import com.ofeksag.book_management.validation.BookValidation;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import com.ofeksag.book_management.entity.Book;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "books.service", histogram = true)
 public class BookService {
     private final BookRepository bookRepository;
     private final BookValidation bookValidation;
+    private final IsbnIndex isbnIndex;
+    private final BookSearchIndex searchIndex;
+    private final CatalogVersion catalogVersion;
+    private final BookCache bookCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int defaultPageLimit;
+    private final int maxPageLimit;
 
-    public BookService(BookRepository bookRepository, BookValidation bookValidation) {
+    public BookService(BookRepository bookRepository, BookValidation bookValidation, IsbnIndex isbnIndex,
+                       BookSearchIndex searchIndex, CatalogVersion catalogVersion, BookCache bookCache,
+                       ObjectMapper objectMapper, Validator validator,
+                       @Value("${books.page.default-limit}") int defaultPageLimit,
+                       @Value("${books.page.max-limit}") int maxPageLimit) {
         this.bookRepository = bookRepository;
         this.bookValidation = bookValidation;
+        this.isbnIndex = isbnIndex;
+        this.searchIndex = searchIndex;
+        this.catalogVersion = catalogVersion;
+        this.bookCache = bookCache;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.defaultPageLimit = defaultPageLimit;
+        this.maxPageLimit = maxPageLimit;
     }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public String getCatalogETag() {
+        return catalogVersion.eTag();
+    }
+
+    public Book getBookById(Long id) {
+        // Applies writes from other nodes first, so the body and version ETag are never older than the sync interval.
+        catalogVersion.sync();
+        return bookCache.getById(id, key -> bookRepository.findById(key)
+                .orElseThrow(() -> new BookNotFoundException("Book with ID " + id + " does not exist.")));
+    }
+
+    public Book getBookByIsbn(String isbn) {
+        catalogVersion.sync();
+        return bookCache.getByIsbn(isbn, key -> bookRepository.findByIsbn(key)
+                .orElseThrow(() -> new BookNotFoundException("Book with ISBN " + isbn + " does not exist.")));
+    }
+
+    public BookPageDTO getBooksPage(String after, Integer limit) {
+        return getBooksPage(after, limit, null);
+    }
+
+    /**
+     * Returns a page of book summaries. {@code fields} is a comma-separated subset of {@link BookSummary#FIELDS};
+     * only those columns are read, and {@code null} reads them all.
+     */
+    public BookPageDTO getBooksPage(String after, Integer limit, String fields) {
+        int pageSize = resolveLimit(limit);
+        long afterId = after == null ? 0L : CursorUtil.decode(after);
+        List<String> selected = resolveFields(fields);
+        return bookCache.getPage(afterId + ":" + pageSize + ":" + String.join(",", selected),
+                key -> loadBooksPage(afterId, pageSize, selected));
+    }
+
+    private BookPageDTO loadBooksPage(long afterId, int pageSize, List<String> fields) {
+        List<BookSummary> books = bookRepository.findSummariesAfter(afterId, fields, pageSize + 1);
+
+        if (books.size() <= pageSize)
+            return new BookPageDTO(books, null);
+
+        List<BookSummary> page = new ArrayList<>(books.subList(0, pageSize));
+        return new BookPageDTO(page, CursorUtil.encode(page.get(pageSize - 1).id()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Book> searchBooks(String query, Integer limit) {
+        int maxResults = resolveLimit(limit);
+        if (BookSearchIndex.tokenize(query).stream()
+                .noneMatch(token -> token.length() >= BookSearchIndex.MIN_PREFIX_LENGTH))
+            throw new IllegalArgumentException("q must contain a word of at least "
+                    + BookSearchIndex.MIN_PREFIX_LENGTH + " letters or digits.");
+
+        List<Long> ids = searchIndex.search(query, maxResults);
+        if (ids.isEmpty())
+            return List.of();
+
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public Book addNewBook(Book book) {
         bookValidation.validateBookFields(book);
 
-        if (bookRepository.existsByIsbn(book.getIsbn()))
+        if (isbnExists(book.getIsbn()))
             throw new BookAlreadyExistsException("The book with ISBN " + book.getIsbn()
                     + " already exists in the system.");
 
-        return bookRepository.save(book);
+        Book saved;
+        try {
+            saved = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("The book with ISBN " + book.getIsbn()
+                    + " already exists in the system.");
+        }
+        isbnIndex.add(saved.getIsbn());
+        indexForSearch(saved);
+        bookCache.evictPages();
+        catalogVersion.recordChange(null);
+        return saved;
     }
 
     public BookResponseDTO addNewBookAndReturnDTO(Book book) {
@@ -41,39 +158,177 @@ public class BookService {
     }
 
     public void deleteBook(Long id) {
-        if (!bookRepository.existsById(id))
-            throw new BookNotFoundException("Book with ID " + id + " not found.");
+        deleteBook(id, null);
+    }
+
+    /**
+     * Deletes the book if its version still equals {@code expectedVersion}; {@code null} deletes unconditionally.
+     */
+    public void deleteBook(Long id, Long expectedVersion) {
+        if (bookRepository.deleteByIdReturningCount(id, expectedVersion) == 0)
+            throw notFoundOrStale(id, expectedVersion, "Book with ID " + id + " not found.");
 
-        bookRepository.deleteById(id);
+        // The ISBN index entry is left behind on purpose: a stale hit is confirmed against the database and dropped.
+        TransactionUtil.runAfterCommit(() -> searchIndex.remove(id));
+        bookCache.evict(id, null);
+        catalogVersion.recordChange(id);
     }
 
-    public BookResponseDTO deleteBookAndReturnDTO(Long id) {
-        deleteBook(id);
+    public BookResponseDTO deleteBookAndReturnDTO(Long id, Long expectedVersion) {
+        deleteBook(id, expectedVersion);
         return new BookResponseDTO("Book with ID " + id + " deleted successfully.", id);
     }
 
-    public Book updateBook(Long id, Book newBook) {
+    /**
+     * Replaces the book if its version still equals {@code expectedVersion}; {@code null} updates unconditionally.
+     * The version check is part of the UPDATE itself, so concurrent writers never overwrite each other unnoticed.
+     */
+    public Book updateBook(Long id, Book newBook, Long expectedVersion) {
         bookValidation.validateBookFields(newBook);
-        Optional<Book> optionalBook = bookRepository.findById(id);
 
-        if (optionalBook.isEmpty())
-            throw new BookNotFoundException("Book with ID " + id + " does not exist.");
+        int updated;
+        try {
+            updated = bookRepository.updateById(id, expectedVersion, newBook.getTitle(), newBook.getAuthor(),
+                    newBook.getPublishedDate(), newBook.getIsbn());
+        } catch (DataIntegrityViolationException e) {
+            throw new BookAlreadyExistsException("Another book with the same ISBN already exists.");
+        }
+        if (updated == 0)
+            throw notFoundOrStale(id, expectedVersion, "Book with ID " + id + " does not exist.");
 
-        Book existingBook = optionalBook.get();
+        Book saved = new Book(newBook.getTitle(), newBook.getAuthor(), newBook.getPublishedDate(), newBook.getIsbn());
+        saved.setId(id);
+        isbnIndex.add(saved.getIsbn());
+        indexForSearch(saved);
+        bookCache.evict(id, null);
+        catalogVersion.recordChange(id);
+        return saved;
+    }
 
-        if (!existingBook.getIsbn().equals(newBook.getIsbn()) && bookRepository.existsByIsbn(newBook.getIsbn()))
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to the stored book. Only the columns whose values actually change are
+     * written; a patch that changes nothing issues no UPDATE and leaves caches and the catalog version alone.
+     */
+    @Transactional
+    public Book patchBook(Long id, JsonNode patch, Long expectedVersion) throws IOException {
+        if (patch == null || !patch.isObject())
+            throw new IllegalArgumentException("Merge patch must be a JSON object.");
+
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new BookNotFoundException("Book with ID " + id + " does not exist."));
+        if (expectedVersion != null && !expectedVersion.equals(book.getVersion()))
+            throw staleVersion(id);
+        String previousIsbn = book.getIsbn();
+
+        BookRequestDTO merged = toRequest(book);
+        try {
+            objectMapper.readerForUpdating(merged).readValue(patch);
+        } catch (UnrecognizedPropertyException e) {
+            throw e;
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException("Invalid merge patch: " + e.getOriginalMessage());
+        }
+
+        String violations = validator.validate(merged).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!violations.isEmpty())
+            throw new IllegalArgumentException(violations);
+
+        if (merged.getTitle().equals(book.getTitle()) && merged.getAuthor().equals(book.getAuthor())
+                && merged.getPublishedDate().equals(book.getPublishedDate()) && merged.getIsbn().equals(previousIsbn))
+            return book;
+
+        book.setTitle(merged.getTitle());
+        book.setAuthor(merged.getAuthor());
+        book.setPublishedDate(merged.getPublishedDate());
+        book.setIsbn(merged.getIsbn());
+        try {
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
             throw new BookAlreadyExistsException("Another book with the same ISBN already exists.");
+        } catch (OptimisticLockingFailureException e) {
+            throw staleVersion(id);
+        }
 
-        existingBook.setTitle(newBook.getTitle());
-        existingBook.setAuthor(newBook.getAuthor());
-        existingBook.setIsbn(newBook.getIsbn());
-        existingBook.setPublishedDate(newBook.getPublishedDate());
+        if (!previousIsbn.equals(book.getIsbn()))
+            isbnIndex.add(book.getIsbn());
+        indexForSearch(book);
+        bookCache.evict(id, previousIsbn);
+        catalogVersion.recordChange(id);
+        return book;
+    }
 
-        return bookRepository.save(existingBook);
+    // The transaction starts here: patchBook is called through this, not through the proxy.
+    @Transactional
+    public BookResponseDTO patchBookAndReturnDTO(Long id, JsonNode patch, Long expectedVersion) throws IOException {
+        Book patched = patchBook(id, patch, expectedVersion);
+        return new BookResponseDTO("Book updated successfully.", patched.getId());
     }
 
-    public BookResponseDTO updateBookAndReturnDTO(Long id, Book newBook) {
-        Book updated = updateBook(id, newBook);
+    public BookResponseDTO updateBookAndReturnDTO(Long id, Book newBook, Long expectedVersion) {
+        Book updated = updateBook(id, newBook, expectedVersion);
         return new BookResponseDTO("Book updated successfully.", updated.getId());
     }
+
+    private RuntimeException notFoundOrStale(Long id, Long expectedVersion, String notFoundMessage) {
+        if (expectedVersion != null && bookRepository.existsById(id))
+            return staleVersion(id);
+        return new BookNotFoundException(notFoundMessage);
+    }
+
+    private static PreconditionFailedException staleVersion(Long id) {
+        return new PreconditionFailedException("Book with ID " + id
+                + " was modified by another request. Fetch it again and retry with the new ETag.");
+    }
+
+    private static BookRequestDTO toRequest(Book book) {
+        BookRequestDTO request = new BookRequestDTO();
+        request.setTitle(book.getTitle());
+        request.setAuthor(book.getAuthor());
+        request.setPublishedDate(book.getPublishedDate());
+        request.setIsbn(book.getIsbn());
+        return request;
+    }
+
+    private static List<String> resolveFields(String fields) {
+        if (fields == null || fields.isBlank())
+            return BookSummary.FIELDS;
+
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (!BookSummary.FIELDS.contains(trimmed))
+                throw new IllegalArgumentException("Unknown field '" + trimmed + "'. fields may contain: "
+                        + String.join(", ", BookSummary.FIELDS) + ".");
+            requested.add(trimmed);
+        }
+        return BookSummary.FIELDS.stream()
+                .filter(field -> field.equals("id") || requested.contains(field))
+                .collect(Collectors.toList());
+    }
+
+    private int resolveLimit(Integer limit) {
+        int resolved = limit == null ? defaultPageLimit : limit;
+        if (resolved < 1 || resolved > maxPageLimit)
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit + ".");
+        return resolved;
+    }
+
+    private void indexForSearch(Book book) {
+        long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        TransactionUtil.runAfterCommit(() -> searchIndex.index(id, title, author));
+    }
+
+    private boolean isbnExists(String isbn) {
+        if (!isbnIndex.mightContain(isbn))
+            return false;
+        if (bookRepository.existsByIsbn(isbn))
+            return true;
+        isbnIndex.remove(isbn);
+        return false;
+    }
 }
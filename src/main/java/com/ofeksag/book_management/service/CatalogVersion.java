@@ -0,0 +1,121 @@
+package com.ofeksag.book_management.service;
+
+import com.ofeksag.book_management.cache.BookCache;
+import com.ofeksag.book_management.utils.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Version of the whole catalog, shared by every node through the append-only {@code catalog_change} table.
+ * <p>
+ * {@link #recordChange(Long)} inserts one row just before the write commits, so a rolled-back write publishes
+ * nothing. Readers poll the table at most once per {@code books.catalog.sync-interval}. They evict only the books
+ * named by rows they have not seen and derive the catalog ETag from the newest ids.
+ * <p>
+ * Ids come from an identity column, so a row can commit after rows with higher ids. The ETag therefore combines the
+ * newest id with the number of rows within {@link #REORDER_WINDOW} ids of it. A row that commits late still changes
+ * the ETag, and nodes that have seen the same rows serve the same ETag.
+ */
+@Component
+public class CatalogVersion {
+    private static final int REORDER_WINDOW = 100;
+    private static final long RETAINED_ROWS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookCache bookCache;
+    private final long syncIntervalNanos;
+    private final ReentrantLock pollLock = new ReentrantLock();
+    // Guarded by pollLock. newestId is -1 until the first poll.
+    private final NavigableSet<Long> recentIds = new TreeSet<>();
+    private long newestId = -1;
+    private long prunedUpTo;
+    private volatile boolean stale = true;
+    private volatile long nextPollAt;
+    private volatile String eTag;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate, BookCache bookCache,
+                          @Value("${books.catalog.sync-interval}") Duration syncInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookCache = bookCache;
+        this.syncIntervalNanos = syncInterval.toNanos();
+    }
+
+    /**
+     * Records that the catalog changed. {@code bookId} names the book whose cached copy is now stale; {@code null}
+     * means the write only added books.
+     */
+    public void recordChange(Long bookId) {
+        TransactionUtil.runBeforeCommit(() ->
+                jdbcTemplate.update("insert into catalog_change (book_id) values (?)", bookId));
+        // This node's own write shows up in the ETag on the next read instead of after the sync interval.
+        TransactionUtil.runAfterCommit(() -> stale = true);
+    }
+
+    public String eTag() {
+        sync();
+        return eTag;
+    }
+
+    /**
+     * Applies changes recorded by any node since the last poll, unless that poll is more recent than the sync
+     * interval.
+     */
+    public void sync() {
+        if (!pollDue())
+            return;
+        pollLock.lock();
+        try {
+            if (!pollDue())
+                return;
+            stale = false;
+            nextPollAt = System.nanoTime() + syncIntervalNanos;
+            poll();
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    private boolean pollDue() {
+        return stale || System.nanoTime() - nextPollAt >= 0;
+    }
+
+    private void poll() {
+        if (newestId < 0) {
+            Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from catalog_change", Long.class);
+            newestId = max == null ? 0 : max;
+        }
+
+        List<Change> changes = jdbcTemplate.query("select id, book_id from catalog_change where id > ? order by id",
+                (resultSet, row) -> new Change(resultSet.getLong(1), resultSet.getObject(2, Long.class)),
+                newestId - REORDER_WINDOW);
+        boolean changed = false;
+        for (Change change : changes) {
+            if (!recentIds.add(change.id()))
+                continue;
+            changed = true;
+            newestId = Math.max(newestId, change.id());
+            if (change.bookId() != null)
+                bookCache.evict(change.bookId(), null);
+        }
+        if (changed)
+            bookCache.evictPages();
+
+        recentIds.headSet(newestId - REORDER_WINDOW, true).clear();
+        eTag = "\"" + newestId + "." + recentIds.size() + "\"";
+
+        if (newestId - prunedUpTo > 2 * RETAINED_ROWS) {
+            prunedUpTo = newestId - RETAINED_ROWS;
+            jdbcTemplate.update("delete from catalog_change where id <= ?", prunedUpTo);
+        }
+    }
+
+    private record Change(long id, Long bookId) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.ofeksag.book_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ofeksag.book_management.exception.UserNotFoundException;
+import com.ofeksag.book_management.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+/**
+ * Current token version of every user, cached in memory so most requests never touch the users table.
+ * <p>
+ * Tokens carry the version they were issued with; bumping it with {@link #revoke(String)} invalidates every token
+ * issued before, e.g. after a role change. The users table is the shared source of truth: the node that revokes
+ * sees the new version right away, and every other node re-reads it once its cached entry is older than
+ * {@code security.token-version.ttl}, which bounds how long a revoked token stays usable there.
+ */
+@Service
+public class TokenVersionStore {
+    private static final Logger log = LoggerFactory.getLogger(TokenVersionStore.class);
+
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final Cache<String, Long> versions;
+
+    public TokenVersionStore(UserRepository userRepository, CustomUserDetailsService userDetailsService,
+                             @Value("${security.token-version.max-size}") long maxSize,
+                             @Value("${security.token-version.ttl}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        userRepository.findAllTokenVersions()
+                .forEach(user -> versions.asMap().merge(user.getUsername(), user.getTokenVersion(), Math::max));
+        log.info("Token version store warmed with {} users", versions.estimatedSize());
+    }
+
+    /**
+     * Returns the version new tokens for this user must carry, or {@code null} if the user does not exist.
+     */
+    public Long current(String username) {
+        Long version = versions.getIfPresent(username);
+        if (version != null)
+            return version;
+
+        return userRepository.findTokenVersion(username)
+                .map(stored -> versions.asMap().merge(username, stored, Math::max))
+                .orElse(null);
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        Long version = current(username);
+        return version != null && version == tokenVersion;
+    }
+
+    @Transactional
+    public void revoke(String username) {
+        if (userRepository.incrementTokenVersion(username) == 0)
+            throw new UserNotFoundException("User " + username + " does not exist.");
+
+        long stored = userRepository.findTokenVersion(username).orElseThrow();
+        versions.asMap().merge(username, stored, (known, fresh) -> Math.max(known + 1, fresh));
+        userDetailsService.evictUser(username);
+    }
+}
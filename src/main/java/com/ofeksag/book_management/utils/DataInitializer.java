@@ -4,10 +4,13 @@ import com.ofeksag.book_management.entity.Book;
 import com.ofeksag.book_management.entity.User;
 import com.ofeksag.book_management.repository.BookRepository;
 import com.ofeksag.book_management.repository.UserRepository;
+import com.ofeksag.book_management.service.CatalogVersion;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 @Component
@@ -16,75 +19,74 @@ public class DataInitializer implements CommandLineRunner {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SyntheticBookGenerator syntheticBookGenerator;
+    private final CatalogVersion catalogVersion;
+    private final long syntheticBookCount;
+    private final boolean enabled;
 
     public DataInitializer(BookRepository bookRepository, UserRepository userRepository,
-                           PasswordEncoder passwordEncoder) {
+                           PasswordEncoder passwordEncoder, SyntheticBookGenerator syntheticBookGenerator,
+                           CatalogVersion catalogVersion,
+                           @Value("${books.synthetic.count}") long syntheticBookCount,
+                           @Value("${books.seed.enabled}") boolean enabled) {
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.syntheticBookGenerator = syntheticBookGenerator;
+        this.catalogVersion = catalogVersion;
+        this.syntheticBookCount = syntheticBookCount;
+        this.enabled = enabled;
     }
 
     @Override
     public void run(String... args) throws Exception {
-        bookRepository.save(new Book(
-                "Harry Potter and the Sorcerer's Stone",
-                "J.K. Rowling",
-                LocalDate.of(1997, 6, 26),
-                "9780747532699"));
-
-        bookRepository.save(new Book(
-                "To Kill a Mockingbird",
-                "Harper Lee",
-                LocalDate.of(1960, 7, 11),
-                "9780061120084"));
-
-        bookRepository.save(new Book(
-                "1984",
-                "George Orwell",
-                LocalDate.of(1949, 6, 8),
-                "9780451524935"));
-
-        bookRepository.save(new Book(
-                "Pride and Prejudice",
-                "Jane Austen",
-                LocalDate.of(1813, 1, 28),
-                "9781503290563"));
-
-        bookRepository.save(new Book(
-                "The Great Gatsby",
-                "F. Scott Fitzgerald",
-                LocalDate.of(1925, 4, 10),
-                "9780743273565"));
-
-        bookRepository.save(new Book(
-                "Moby-Dick",
-                "Herman Melville",
-                LocalDate.of(1851, 10, 18),
-                "9781503280786"));
-
-        bookRepository.save(new Book(
-                "The Catcher in the Rye",
-                "J.D. Salinger",
-                LocalDate.of(1951, 7, 16),
-                "9780316769488"));
-
-        bookRepository.save(new Book(
-                "The Hobbit",
-                "J.R.R. Tolkien",
-                LocalDate.of(1937, 9, 21),
-                "9780547928227"));
-
-        bookRepository.save(new Book(
-                "Brave New World",
-                "Aldous Huxley",
-                LocalDate.of(1932, 8, 30),
-                "9780060850524"));
-
-        bookRepository.save(new Book(
-                "The Lord of the Rings: The Fellowship of the Ring",
-                "J.R.R. Tolkien",
-                LocalDate.of(1954, 7, 29),
-                "9780618640157"));
+        if (!enabled)
+            return;
+
+        seedBooks(List.of(
+                new Book("Harry Potter and the Sorcerer's Stone",
+                        "J.K. Rowling",
+                        LocalDate.of(1997, 6, 26),
+                        "9780747532699"),
+                new Book("To Kill a Mockingbird",
+                        "Harper Lee",
+                        LocalDate.of(1960, 7, 11),
+                        "9780061120084"),
+                new Book("1984",
+                        "George Orwell",
+                        LocalDate.of(1949, 6, 8),
+                        "9780451524935"),
+                new Book("Pride and Prejudice",
+                        "Jane Austen",
+                        LocalDate.of(1813, 1, 28),
+                        "9781503290563"),
+                new Book("The Great Gatsby",
+                        "F. Scott Fitzgerald",
+                        LocalDate.of(1925, 4, 10),
+                        "9780743273565"),
+                new Book("Moby-Dick",
+                        "Herman Melville",
+                        LocalDate.of(1851, 10, 18),
+                        "9781503280786"),
+                new Book("The Catcher in the Rye",
+                        "J.D. Salinger",
+                        LocalDate.of(1951, 7, 16),
+                        "9780316769488"),
+                new Book("The Hobbit",
+                        "J.R.R. Tolkien",
+                        LocalDate.of(1937, 9, 21),
+                        "9780547928227"),
+                new Book("Brave New World",
+                        "Aldous Huxley",
+                        LocalDate.of(1932, 8, 30),
+                        "9780060850524"),
+                new Book("The Lord of the Rings: The Fellowship of the Ring",
+                        "J.R.R. Tolkien",
+                        LocalDate.of(1954, 7, 29),
+                        "9780618640157")));
+
+        if (syntheticBookCount > 0)
+            syntheticBookGenerator.generate(syntheticBookCount);
 
         if (userRepository.findByUsername("admin").isEmpty()) {
             User admin = new User();
@@ -102,4 +104,16 @@ public class DataInitializer implements CommandLineRunner {
             userRepository.save(user);
         }
     }
-}
\ No newline at end of file
+
+    // One lookup for all ISBNs and one batched insert for the missing books, so restarts add nothing.
+    private void seedBooks(List<Book> books) {
+        Set<String> existing = bookRepository.findExistingIsbns(books.stream().map(Book::getIsbn).toList());
+        List<Book> missing = books.stream()
+                .filter(book -> !existing.contains(book.getIsbn()))
+                .toList();
+        if (!missing.isEmpty()) {
+            bookRepository.saveAll(missing);
+            catalogVersion.recordChange(null);
+        }
+    }
+}
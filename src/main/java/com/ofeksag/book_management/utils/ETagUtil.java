@@ -0,0 +1,38 @@
+package com.ofeksag.book_management.utils;
+
+import com.ofeksag.book_management.exception.PreconditionFailedException;
+import org.springframework.http.ETag;
+
+import java.util.List;
+
+/**
+ * Entity tags for single books, derived from the optimistic-locking version column.
+ */
+public class ETagUtil {
+    private static final String PREFIX = "v";
+
+    public static String forVersion(long version) {
+        return "\"" + PREFIX + version + "\"";
+    }
+
+    /**
+     * Returns the book version an If-Match header asks for, or {@code null} when the header is absent or "*".
+     * Weak or foreign tags can never match a book, so they fail the precondition straight away.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank())
+            return null;
+
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.size() == 1 && tags.get(0).isWildcard())
+            return null;
+        if (tags.size() == 1 && !tags.get(0).weak() && tags.get(0).tag().startsWith(PREFIX)) {
+            try {
+                return Long.parseLong(tags.get(0).tag().substring(PREFIX.length()));
+            } catch (NumberFormatException ignored) {
+                // Falls through to the precondition failure below.
+            }
+        }
+        throw new PreconditionFailedException("If-Match must carry the single ETag returned by GET /api/books/{id}.");
+    }
+}
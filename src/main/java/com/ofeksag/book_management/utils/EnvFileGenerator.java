@@ -12,6 +12,8 @@ public class EnvFileGenerator {
     public static void main(String[] args) {
         generateEnvFileIfNeeded();
         loadEnvVariables();
+        // Provisions the signing key pair in the default keyring directory unless it already exists.
+        new JwtKeyring("keys", "key-1", true);
     }
 
     private static void generateEnvFileIfNeeded() {
@@ -0,0 +1,137 @@
+package com.ofeksag.book_management.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EC P-256 keys used to sign and verify ES256 tokens, identified by the {@code kid} token header.
+ * <p>
+ * Each key lives in the keyring directory as {@code <kid>.pub.pem} (X.509) and, on signing nodes only,
+ * {@code <kid>.pem} (PKCS#8). Every public key found is parsed once at startup and kept for verification,
+ * so tokens signed with a retired key stay valid until they expire. To rotate, add a new key pair and point
+ * {@code jwt.keyring.active-kid} at it. Startup fails if the active public key is missing, unless
+ * {@code jwt.keyring.generate} is set, which should only be done on a single signing node.
+ */
+@Component
+public class JwtKeyring {
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyring.class);
+    private static final String PUBLIC_SUFFIX = ".pub.pem";
+    private static final String PRIVATE_SUFFIX = ".pem";
+
+    private final String activeKid;
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+
+    public JwtKeyring(String directory, String activeKid) {
+        this(directory, activeKid, true);
+    }
+
+    @Autowired
+    public JwtKeyring(@Value("${jwt.keyring.dir}") String directory,
+                      @Value("${jwt.keyring.active-kid}") String activeKid,
+                      @Value("${jwt.keyring.generate}") boolean generate) {
+        Path keyringDir = Paths.get(directory);
+        try {
+            if (!Files.exists(keyringDir.resolve(activeKid + PUBLIC_SUFFIX))) {
+                if (!generate)
+                    throw new IllegalStateException("No public key for the active kid '" + activeKid + "' in "
+                            + keyringDir.toAbsolutePath() + "; provision the keyring or set jwt.keyring.generate=true.");
+                Files.createDirectories(keyringDir);
+                generateKeyPair(keyringDir, activeKid);
+            }
+
+            this.activeKid = activeKid;
+            Path privateKeyFile = keyringDir.resolve(activeKid + PRIVATE_SUFFIX);
+            this.signingKey = Files.exists(privateKeyFile) ? readPrivateKey(privateKeyFile) : null;
+            this.verificationKeys = Collections.unmodifiableMap(readPublicKeys(keyringDir));
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load JWT keyring from " + keyringDir.toAbsolutePath(), e);
+        }
+        log.info("JWT keyring loaded {} verification keys, signing with '{}'{}", verificationKeys.size(), activeKid,
+                signingKey == null ? " unavailable (verify-only node)" : "");
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public PrivateKey getSigningKey() {
+        if (signingKey == null)
+            throw new IllegalStateException("No private key for '" + activeKid + "'; this node can only verify tokens.");
+        return signingKey;
+    }
+
+    public PublicKey getVerificationKey(String kid) {
+        return verificationKeys.get(kid);
+    }
+
+    private static void generateKeyPair(Path directory, String kid) throws IOException, GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+
+        Path privateKeyFile = directory.resolve(kid + PRIVATE_SUFFIX);
+        try {
+            Files.createFile(privateKeyFile,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(privateKeyFile);
+            log.warn("Could not restrict permissions of {}", privateKeyFile.toAbsolutePath());
+        }
+        writePem(privateKeyFile, "PRIVATE KEY", keyPair.getPrivate().getEncoded());
+        writePem(directory.resolve(kid + PUBLIC_SUFFIX), "PUBLIC KEY", keyPair.getPublic().getEncoded());
+        log.info("Generated JWT signing key '{}' in {}", kid, directory.toAbsolutePath());
+    }
+
+    private static Map<String, PublicKey> readPublicKeys(Path directory) throws IOException, GeneralSecurityException {
+        Map<String, PublicKey> keys = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + PUBLIC_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String kid = fileName.substring(0, fileName.length() - PUBLIC_SUFFIX.length());
+                keys.put(kid, KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(readPem(file))));
+            }
+        }
+        return keys;
+    }
+
+    private static PrivateKey readPrivateKey(Path file) throws IOException, GeneralSecurityException {
+        return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(readPem(file)));
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String base64 = Files.readString(file)
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static void writePem(Path file, String type, byte[] der) throws IOException {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n");
+    }
+}
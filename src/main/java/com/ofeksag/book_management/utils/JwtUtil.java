@@ -1,7 +1,11 @@
 package com.ofeksag.book_management.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.ofeksag.book_management.exception.*;
 import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.spec.SecretKeySpec;
@@ -11,19 +15,75 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.Key;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private final Key secretKey;
+    private final Instant legacyHs256AcceptUntil;
+    private final SignatureAlgorithm signingAlgorithm;
+    private final JwtKeyring keyring;
     private final long jwtExpirationInMs;
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(long jwtExpirationInMs, long verifiedTokenCacheSize) {
+        this(jwtExpirationInMs, verifiedTokenCacheSize, SignatureAlgorithm.HS256.name(), null);
+    }
+
+    public JwtUtil(long jwtExpirationInMs, long verifiedTokenCacheSize, String signingAlgorithm, JwtKeyring keyring) {
+        this(jwtExpirationInMs, verifiedTokenCacheSize, signingAlgorithm, keyring, "");
+    }
 
-    public JwtUtil(@Value("${jwt.expiration}") long jwtExpirationInMs) {
+    /**
+     * {@code legacyHs256AcceptUntil} is an ISO-8601 instant up to which an ES256 node still accepts HS256 tokens
+     * without a {@code kid}; blank rejects them. The shared secret is only loaded when this node signs with HS256 or
+     * still accepts legacy tokens, so verify-only nodes cannot mint tokens.
+     */
+    @Autowired
+    public JwtUtil(@Value("${jwt.expiration}") long jwtExpirationInMs,
+                   @Value("${jwt.cache.max-size}") long verifiedTokenCacheSize,
+                   @Value("${jwt.signing.algorithm}") String signingAlgorithm,
+                   JwtKeyring keyring,
+                   @Value("${jwt.legacy-hs256.accept-until}") String legacyHs256AcceptUntil) {
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.keyring = keyring;
+        this.signingAlgorithm = SignatureAlgorithm.forName(signingAlgorithm);
+        if (this.signingAlgorithm != SignatureAlgorithm.HS256 && this.signingAlgorithm != SignatureAlgorithm.ES256)
+            throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + signingAlgorithm);
+        if (this.signingAlgorithm == SignatureAlgorithm.ES256 && keyring == null)
+            throw new IllegalArgumentException("ES256 signing requires a keyring.");
+
+        if (this.signingAlgorithm == SignatureAlgorithm.HS256)
+            this.legacyHs256AcceptUntil = Instant.MAX;
+        else if (legacyHs256AcceptUntil == null || legacyHs256AcceptUntil.isBlank())
+            this.legacyHs256AcceptUntil = null;
+        else
+            this.legacyHs256AcceptUntil = Instant.parse(legacyHs256AcceptUntil.trim());
+
+        this.secretKey = this.legacyHs256AcceptUntil == null || this.legacyHs256AcceptUntil.isBefore(Instant.now())
+                ? null
+                : loadSecretKey();
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver())
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
+    }
+
+    private Key loadSecretKey() {
         String secret;
         try {
             secret = loadSecretFromFile(".env");
@@ -33,7 +93,7 @@ public class JwtUtil {
             throw e;
         }
         byte[] keyBytes = Base64.getEncoder().encode(secret.getBytes());
-        this.secretKey = new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
+        return new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
     }
 
     private String loadSecretFromFile(String filePath) {
@@ -81,32 +141,110 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            // The legacy window can close, or the signing key be retired, after the token was first verified.
+            try {
+                resolveKey(cached.kid());
+            } catch (JwtException e) {
+                verifiedTokens.invalidate(token);
+                throw new JwtDeserializationException("Failed to deserialize JWT: " + e.getMessage(), e);
+            }
+            return cached.claims();
+        }
+
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Jws<Claims> jws = jwtParser.parseClaimsJws(token);
+            verifiedTokens.put(token, new VerifiedToken(jws.getBody(), jws.getHeader().getKeyId()));
+            return jws.getBody();
         } catch (JwtException e) {
             throw new JwtDeserializationException("Failed to deserialize JWT: " + e.getMessage(), e);
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public String generateToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder().setSubject(username));
+    }
+
+    public String generateToken(String username, Collection<String> roles, long tokenVersion) {
+        return sign(Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
-                .compact();
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion));
+    }
+
+    private String sign(JwtBuilder builder) {
+        builder.setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs));
+        if (signingAlgorithm == SignatureAlgorithm.ES256)
+            return builder.setHeaderParam(JwsHeader.KEY_ID, keyring.getActiveKid())
+                    .signWith(keyring.getSigningKey(), SignatureAlgorithm.ES256)
+                    .compact();
+        return builder.signWith(secretKey, SignatureAlgorithm.HS256).compact();
     }
 
     public Boolean validateToken(String token, String username) {
-        return (username.equals(extractUsername(token)) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), username);
+    }
+
+    public Boolean validateToken(Claims claims, String username) {
+        return username.equals(claims.getSubject()) && !isTokenExpired(claims);
+    }
+
+    /**
+     * Tokens without a {@code kid} are HS256 tokens signed with the shared secret and are only accepted while the
+     * legacy window is open; the rest are verified with the matching public key from the keyring. The parser rejects
+     * any mismatch between the header algorithm and key type.
+     */
+    private Key resolveKey(String kid) {
+        if (kid == null) {
+            if (secretKey == null || Instant.now().isAfter(legacyHs256AcceptUntil))
+                throw new UnsupportedJwtException("Tokens without a signing key id are no longer accepted.");
+            return secretKey;
+        }
+
+        Key key = keyring == null ? null : keyring.getVerificationKey(kid);
+        if (key == null)
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        return key;
+    }
+
+    private class KeyIdResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolveKey(header.getKeyId());
+        }
+    }
+
+    private record VerifiedToken(Claims claims, String kid) {
+    }
+
+    // Entries live until the token expires, and legacy tokens no longer than the window that accepts them.
+    private class ClaimsExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            Date expiration = verified.claims().getExpiration();
+            long expiresAt = expiration != null
+                    ? expiration.getTime()
+                    : System.currentTimeMillis() + jwtExpirationInMs;
+            if (verified.kid() == null && legacyHs256AcceptUntil != null && legacyHs256AcceptUntil != Instant.MAX)
+                expiresAt = Math.min(expiresAt, legacyHs256AcceptUntil.toEpochMilli());
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(expiresAt - System.currentTimeMillis(), 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
\ No newline at end of file
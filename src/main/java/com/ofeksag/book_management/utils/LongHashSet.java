@@ -0,0 +1,108 @@
+package com.ofeksag.book_management.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of non-negative longs, stored in a single {@code long[]} with linear probing.
+ * Not thread-safe; callers are expected to guard it.
+ */
+public class LongHashSet {
+    private static final long EMPTY = -1L;
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet(int expectedSize) {
+        table = newTable(Math.max(16, Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1));
+    }
+
+    public boolean contains(long value) {
+        long[] current = table;
+        int mask = current.length - 1;
+        for (int slot = slot(value, mask); ; slot = (slot + 1) & mask) {
+            long existing = current[slot];
+            if (existing == value)
+                return true;
+            if (existing == EMPTY)
+                return false;
+        }
+    }
+
+    public boolean add(long value) {
+        requireNonNegative(value);
+        int mask = table.length - 1;
+        int slot = slot(value, mask);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size * 2 > table.length)
+            resize(table.length * 2);
+        return true;
+    }
+
+    public boolean remove(long value) {
+        int mask = table.length - 1;
+        int slot = slot(value, mask);
+        while (table[slot] != value) {
+            if (table[slot] == EMPTY)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+
+        // Backward-shift deletion keeps every probe chain contiguous without tombstones.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(table[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] resized = newTable(capacity);
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value == EMPTY)
+                continue;
+            int slot = slot(value, mask);
+            while (resized[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            resized[slot] = value;
+        }
+        table = resized;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] created = new long[capacity];
+        Arrays.fill(created, EMPTY);
+        return created;
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void requireNonNegative(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("LongHashSet only stores non-negative values: " + value);
+    }
+}
@@ -0,0 +1,179 @@
+package com.ofeksag.book_management.utils;
+
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.service.CatalogVersion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Bulk-loads a synthetic catalog so production-sized data can be reproduced locally and in tests.
+ * <p>
+ * Rows bypass the persistence context and go through JDBC batch inserts, one transaction per batch. Ids are
+ * reserved from {@code book_seq} in the same blocks Hibernate's pooled optimizer uses, so they never collide with
+ * ids the application assigns. Synthetic ISBNs start with {@value #ISBN_PREFIX} and are numbered from zero, and
+ * every book is derived from its number and the seed. Numbers whose ISBN is already taken are skipped, so generating
+ * again only fills in what is missing.
+ */
+@Component
+public class SyntheticBookGenerator {
+    private static final Logger log = LoggerFactory.getLogger(SyntheticBookGenerator.class);
+
+    static final String ISBN_PREFIX = "9799";
+    private static final long MAX_BOOKS = 100_000_000L;
+    private static final String COUNT_RANGE_SQL = "select count(*) from book where isbn between ? and ?";
+    private static final String SELECT_RANGE_SQL = "select isbn from book where isbn between ? and ?";
+    private static final String INSERT_SQL =
+            "insert into book (id, title, author, published_date, isbn, version) values (?, ?, ?, ?, ?, 0)";
+
+    private static final String[] ADJECTIVES = {"Silent", "Broken", "Hidden", "Last", "Golden", "Forgotten",
+            "Crimson", "Distant", "Endless", "Quiet", "Burning", "Winter", "Hollow", "Secret", "Wandering", "Iron"};
+    private static final String[] NOUNS = {"River", "Garden", "Empire", "Mountain", "Letter", "Kingdom", "Harbor",
+            "Forest", "Machine", "Promise", "Shadow", "Orchard", "Archive", "Lantern", "Voyage", "Bridge"};
+    private static final String[] PLACES = {"the North", "Avalon", "the Sea", "Tomorrow", "the Valley", "Babel",
+            "the Stars", "Lisbon", "the Desert", "Glass"};
+    private static final String[] FIRST_NAMES = {"Ada", "Miriam", "Noah", "Yael", "Omar", "Elena", "Hiro", "Grace",
+            "Tomas", "Leah", "Amir", "Clara", "Jonas", "Maya", "Felix", "Nora"};
+    private static final String[] LAST_NAMES = {"Levi", "Okafor", "Lindqvist", "Moreau", "Tanaka", "Haddad",
+            "Novak", "Brennan", "Costa", "Weiss", "Ibarra", "Kowalski", "Achterberg", "Mendel", "Sato", "Quinn"};
+    private static final LocalDate EARLIEST_PUBLISHED = LocalDate.of(1800, 1, 1);
+    private static final int PUBLISHED_RANGE_DAYS = 365 * 225;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final String nextIdBlockSql;
+    private final int batchSize;
+    private final long seed;
+
+    public SyntheticBookGenerator(JdbcTemplate jdbcTemplate, CatalogVersion catalogVersion,
+                                  PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                                  @Value("${books.synthetic.batch-size}") int batchSize,
+                                  @Value("${books.synthetic.seed}") long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nextIdBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices()
+                .getDialect().getSequenceSupport().getSequenceNextValString("book_seq");
+        this.batchSize = batchSize;
+        this.seed = seed;
+    }
+
+    /**
+     * Inserts whichever of the synthetic books numbered below {@code count} are missing and returns how many were
+     * added.
+     */
+    public long generate(long count) {
+        if (count > MAX_BOOKS)
+            throw new IllegalArgumentException("At most " + MAX_BOOKS + " synthetic books are supported.");
+        if (count <= 0)
+            return 0;
+
+        Long existing = jdbcTemplate.queryForObject(COUNT_RANGE_SQL, Long.class, isbn(0), isbn(count - 1));
+        if (existing == null || existing >= count) {
+            log.info("Synthetic catalog already holds {} books; nothing to generate", existing);
+            return 0;
+        }
+
+        long startedAt = System.nanoTime();
+        long rows = 0;
+        for (long number = 0; number < count; number += batchSize) {
+            long first = number;
+            int size = (int) Math.min(batchSize, count - number);
+            Integer inserted = transactionTemplate.execute(status -> insertBatch(first, size));
+            rows += inserted == null ? 0 : inserted;
+            log.debug("Generated synthetic books {}..{}", first, first + size - 1);
+        }
+
+        if (rows > 0)
+            catalogVersion.recordChange(null);
+
+        long elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        log.info("Generated {} synthetic books in {} ms ({} rows/sec)", rows, elapsedNanos / 1_000_000,
+                rows * 1_000_000_000L / elapsedNanos);
+        return rows;
+    }
+
+    // Synthetic ISBNs sort by number, so one range query finds every taken ISBN in the batch.
+    private int insertBatch(long firstNumber, int size) {
+        Set<String> taken = new HashSet<>(jdbcTemplate.queryForList(SELECT_RANGE_SQL, String.class,
+                isbn(firstNumber), isbn(firstNumber + size - 1)));
+        long[] numbers = LongStream.range(firstNumber, firstNumber + size)
+                .filter(number -> !taken.contains(isbn(number)))
+                .toArray();
+        if (numbers.length == 0)
+            return 0;
+
+        long[] ids = reserveIds(numbers.length);
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                bind(statement, ids[i], numbers[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return numbers.length;
+            }
+        });
+        return numbers.length;
+    }
+
+    private void bind(PreparedStatement statement, long id, long number) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + number);
+        String title = pick(random, ADJECTIVES) + " " + pick(random, NOUNS)
+                + (random.nextBoolean() ? " of " + pick(random, PLACES) : "");
+        String author = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+
+        statement.setLong(1, id);
+        statement.setString(2, title);
+        statement.setString(3, author);
+        statement.setDate(4, Date.valueOf(EARLIEST_PUBLISHED.plusDays(random.nextInt(PUBLISHED_RANGE_DAYS))));
+        statement.setString(5, isbn(number));
+    }
+
+    /**
+     * Takes whole blocks from the sequence. As with the pooled optimizer, a sequence value {@code hi} owns the ids
+     * {@code (hi - allocationSize, hi]}; ids below 1 are never used.
+     */
+    private long[] reserveIds(int size) {
+        long[] ids = new long[size];
+        int reserved = 0;
+        while (reserved < size) {
+            Long hi = jdbcTemplate.queryForObject(nextIdBlockSql, Long.class);
+            if (hi == null)
+                continue;
+            for (long id = Math.max(hi - Book.ID_ALLOCATION_SIZE + 1, 1); id <= hi && reserved < size; id++)
+                ids[reserved++] = id;
+        }
+        return ids;
+    }
+
+    static String isbn(long number) {
+        String digits = ISBN_PREFIX + String.format("%08d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++)
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
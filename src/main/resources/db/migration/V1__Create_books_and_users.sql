@@ -0,0 +1,41 @@
+-- Written to run on both an empty database and one created earlier by Hibernate's ddl-auto=update,
+-- which is baselined at version 0. Every statement is therefore idempotent.
+
+create sequence if not exists book_seq start with 1 increment by 50;
+
+create table if not exists book (
+    id             bigint       not null primary key,
+    title          varchar(255) not null,
+    author         varchar(255) not null,
+    published_date date         not null,
+    isbn           varchar(255) not null,
+    version        bigint       default 0 not null
+);
+
+alter table book add column if not exists version bigint default 0 not null;
+
+-- The original seeder inserted the sample books again on every start, so a baselined database can hold the same ISBN
+-- several times. Keep the oldest row for each ISBN so the unique index below can be built.
+delete from book where exists (select 1 from book earlier where earlier.isbn = book.isbn and earlier.id < book.id);
+
+create unique index if not exists ux_book_isbn on book (isbn);
+create index if not exists ix_book_author on book (author);
+create index if not exists ix_book_title on book (title);
+
+create table if not exists users (
+    id            bigint generated by default as identity primary key,
+    username      varchar(255) not null,
+    password      varchar(255) not null,
+    token_version bigint       default 0 not null
+);
+
+alter table users add column if not exists token_version bigint default 0 not null;
+
+create unique index if not exists ux_users_username on users (username);
+
+create table if not exists user_roles (
+    user_id bigint not null references users (id),
+    role    varchar(255)
+);
+
+create index if not exists ix_user_roles_user_id on user_roles (user_id);
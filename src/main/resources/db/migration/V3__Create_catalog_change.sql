@@ -0,0 +1,8 @@
+-- Append-only log of catalog writes. Each write adds a row naming the book it changed (null when it only added
+-- books); every node polls for new rows, evicts those books and derives the catalog ETag from the newest ids.
+-- Writers only insert, so they never wait on each other the way they would on a shared counter row.
+
+create table if not exists catalog_change (
+    id      bigint generated by default as identity primary key,
+    book_id bigint
+);
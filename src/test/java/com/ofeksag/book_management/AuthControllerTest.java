@@ -2,19 +2,28 @@ package com.ofeksag.book_management;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {"jwt.keyring.generate=true", "security.bcrypt.threads=1",
+        "security.bcrypt.queue-capacity=1", "security.bcrypt.max-wait=200ms"})
 @AutoConfigureMockMvc
 class AuthControllerTest {
 
@@ -22,6 +31,10 @@ class AuthControllerTest {
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     void loginSuccessShouldReturnToken() throws Exception {
@@ -55,4 +68,25 @@ class AuthControllerTest {
                         .content(loginJson))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loginIsRejectedWith503WhenHashingPoolIsSaturated() throws Exception {
+        // A cost-14 hash keeps the only hashing thread busy well past max-wait.
+        String slowHash = new BCryptPasswordEncoder(14).encode("slow");
+        Timer queueWait = meterRegistry.get("auth.password.queue.wait").timer();
+        long started = queueWait.count();
+        CompletableFuture<Boolean> busy = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("slow", slowHash));
+        while (queueWait.count() == started)
+            Thread.sleep(10);
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"admin\", \"password\": \"pass\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        assertThat(busy.get()).isTrue();
+        // The rejected login's hash was dropped instead of running once the thread freed up.
+        assertThat(queueWait.count()).isEqualTo(started + 1);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookBatchIntegrationTest extends IntegrationTestSupport {
+
+    @SpyBean
+    private BookRepository bookRepository;
+
+    @Test
+    void testBatchCreateReportsEachItem() throws Exception {
+        String payload = """
+            [
+              {"title": "Batch One", "author": "Batch Author", "publishedDate": "2024-01-01", "isbn": "4444444444441"},
+              {"title": "Batch Two", "author": "Batch Author", "publishedDate": "2024-01-01", "isbn": "4444444444442"},
+              {"title": "Batch Copy", "author": "Batch Author", "publishedDate": "2024-01-01", "isbn": "4444444444441"},
+              {"title": "Seeded Copy", "author": "Batch Author", "publishedDate": "2024-01-01", "isbn": "9780747532699"},
+              {"title": "Bad Isbn", "author": "Batch Author", "publishedDate": "2024-01-01", "isbn": "123"}
+            ]
+            """;
+        mockMvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[3].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.items[4].status").value("INVALID"));
+    }
+
+    @Test
+    void testBatchCreateReportsConcurrentDuplicateAsConflict() throws Exception {
+        // Simulates another request inserting the ISBN between the lookup and the flush.
+        doReturn(Set.of()).when(bookRepository).findExistingIsbns(anyCollection());
+
+        mockMvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"title": "Raced", "author": "Batch Author", "publishedDate": "2024-01-01",
+                                  "isbn": "9780747532699"}]
+                                """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("A book in the batch was created concurrently by another"
+                        + " request. Nothing was saved; retry the batch."));
+    }
+
+    @Test
+    void testBatchCreateFromNdjson() throws Exception {
+        String payload = """
+            {"title": "Ndjson One", "author": "Stream Author", "publishedDate": "2024-01-01", "isbn": "4444444444451"}
+            {"title": "Ndjson Two", "author": "Stream Author", "publishedDate": "2024-01-01", "isbn": "4444444444452"}
+            """;
+        mockMvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/x-ndjson")
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[1].id").isNumber());
+    }
+
+    @Test
+    void testBatchCreateAsUserShouldFail() throws Exception {
+        mockMvc.perform(post("/api/books/batch")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+}
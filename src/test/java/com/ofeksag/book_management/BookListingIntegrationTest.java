@@ -0,0 +1,92 @@
+package com.ofeksag.book_management;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookListingIntegrationTest extends IntegrationTestSupport {
+
+    @Test
+    void testGetBooksPageByCursor() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/api/books")
+                        .param("limit", "3")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+        JsonNode firstBooks = objectMapper.readTree(firstPage.getResponse().getContentAsString());
+        String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+        MvcResult secondPage = mockMvc.perform(get("/api/books")
+                        .param("limit", "3")
+                        .param("after", cursor)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andReturn();
+        JsonNode secondBooks = objectMapper.readTree(secondPage.getResponse().getContentAsString());
+        assertThat(secondBooks.get(0).get("id").asLong()).isGreaterThan(firstBooks.get(2).get("id").asLong());
+    }
+
+    @Test
+    void testGetBooksWithSelectedFields() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .param("limit", "2")
+                        .param("fields", "title, isbn")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].title").exists())
+                .andExpect(jsonPath("$[0].isbn").exists())
+                .andExpect(jsonPath("$[0].author").doesNotExist())
+                .andExpect(jsonPath("$[0].publishedDate").doesNotExist());
+
+        mockMvc.perform(get("/api/books")
+                        .param("fields", "title,price")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .param("after", "not-a-cursor")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksWithLimitOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .param("limit", "0")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportBooksAsNdjson() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/api/books/export")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines.length).isGreaterThanOrEqualTo(10);
+        for (String line : lines) {
+            assertThat(objectMapper.readTree(line).get("isbn").asText()).hasSize(13);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ofeksag.book_management;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookLookupIntegrationTest extends IntegrationTestSupport {
+
+    @Test
+    void testGetBookById() throws Exception {
+        MvcResult listResult = mockMvc.perform(get("/api/books")
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode firstBook = objectMapper.readTree(listResult.getResponse().getContentAsString()).get(0);
+
+        MvcResult result = mockMvc.perform(get("/api/books/" + firstBook.get("id").asLong())
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isbn").value(firstBook.get("isbn").asText()))
+                .andReturn();
+
+        mockMvc.perform(get("/api/books/" + firstBook.get("id").asLong())
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/books/999999")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetBookByIsbn() throws Exception {
+        mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("1984"));
+
+        mockMvc.perform(get("/api/books/isbn/0000000000000")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpdateChangingIsbnEvictsCachedIsbnLookup() throws Exception {
+        long orwellId = objectMapper.readTree(mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        BookRequestDTO updateDto = new BookRequestDTO();
+        updateDto.setTitle("Nineteen Eighty-Four");
+        updateDto.setAuthor("George Orwell");
+        updateDto.setPublishedDate(LocalDate.of(1949, 6, 8));
+        updateDto.setIsbn("9780000000017");
+        mockMvc.perform(put("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/isbn/9780000000017")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orwellId))
+                .andExpect(jsonPath("$.title").value("Nineteen Eighty-Four"));
+    }
+}
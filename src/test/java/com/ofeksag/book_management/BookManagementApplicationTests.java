@@ -3,7 +3,7 @@ package com.ofeksag.book_management;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "jwt.keyring.generate=true")
 class BookManagementApplicationTests {
 
 	@Test
@@ -1,18 +1,12 @@
 package com.ofeksag.book_management;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ofeksag.book_management.dto.BookRequestDTO;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -26,41 +20,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
-@AutoConfigureMockMvc
-@Transactional
-public class BookManagementIntegrationTest {
-
-    @Autowired
-    private MockMvc mockMvc;
-    @Autowired
-    private ObjectMapper objectMapper;
-
-    private String adminToken;
-    private String userToken;
-
-    @BeforeEach
-    void setup() throws Exception {
-        adminToken = obtainToken("admin", "pass");
-        userToken = obtainToken("user", "pass");
-    }
-
-    private String obtainToken(String username, String password) throws Exception {
-        String loginPayload = String.format("""
-                {
-                  "username": "%s",
-                  "password": "%s"
-                }
-                """, username, password);
-        MvcResult result = mockMvc.perform(post("/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(loginPayload))
-                .andExpect(status().isOk())
-                .andReturn();
-        String response = result.getResponse().getContentAsString();
-        JsonNode jsonNode = objectMapper.readTree(response);
-        return jsonNode.get("token").asText();
-    }
+public class BookManagementIntegrationTest extends IntegrationTestSupport {
 
     @Nested
     class AuthTests {
@@ -173,7 +133,8 @@ public class BookManagementIntegrationTest {
                             .content(objectMapper.writeValueAsString(invalidBook)))
                     .andExpect(status().isBadRequest())
                     .andReturn();
-            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    new TypeReference<>() {});
             assertThat(errors.get("isbn")).isEqualTo("isbn is required");
         }
 
@@ -224,7 +185,8 @@ public class BookManagementIntegrationTest {
                             .content(objectMapper.writeValueAsString(bookDto)))
                     .andExpect(status().isBadRequest())
                     .andReturn();
-            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    new TypeReference<>() {});
             assertThat(errors.get("title")).isEqualTo("title cannot be blank");
         }
 
@@ -241,7 +203,8 @@ public class BookManagementIntegrationTest {
                             .content(objectMapper.writeValueAsString(bookDto)))
                     .andExpect(status().isBadRequest())
                     .andReturn();
-            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    new TypeReference<>() {});
             assertThat(errors.get("author")).isEqualTo("author cannot be blank");
         }
 
@@ -258,9 +221,26 @@ public class BookManagementIntegrationTest {
                             .content(objectMapper.writeValueAsString(bookDto)))
                     .andExpect(status().isBadRequest())
                     .andReturn();
-            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(), Map.class);
+            Map<String, String> errors = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    new TypeReference<>() {});
             assertThat(errors.get("publishedDate")).isEqualTo("publishedDate is required");
         }
+
+        @Test
+        void testCreateBookWithDuplicateIsbnShouldConflict() throws Exception {
+            BookRequestDTO bookDto = new BookRequestDTO();
+            bookDto.setTitle("Duplicate Isbn Book");
+            bookDto.setAuthor("Test Author");
+            bookDto.setPublishedDate(LocalDate.of(2024, 1, 1));
+            bookDto.setIsbn("9780747532699");
+            mockMvc.perform(post("/api/books")
+                            .header("Authorization", "Bearer " + adminToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookDto)))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.message")
+                            .value("The book with ISBN 9780747532699 already exists in the system."));
+        }
     }
 
     @Nested
@@ -293,6 +273,10 @@ public class BookManagementIntegrationTest {
                             .content(objectMapper.writeValueAsString(updateDto)))
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.message").value("Book updated successfully."));
+            mockMvc.perform(get("/api/books/" + bookId)
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.title").value("Updated Title"));
             mockMvc.perform(put("/api/books/" + bookId)
                             .header("Authorization", "Bearer " + userToken)
                             .contentType(MediaType.APPLICATION_JSON)
@@ -300,6 +284,24 @@ public class BookManagementIntegrationTest {
                     .andExpect(status().isForbidden());
         }
 
+        @Test
+        void testUpdateBookToExistingIsbnShouldConflict() throws Exception {
+            BookRequestDTO updateDto = new BookRequestDTO();
+            updateDto.setTitle("1984");
+            updateDto.setAuthor("George Orwell");
+            updateDto.setPublishedDate(LocalDate.of(1949, 6, 8));
+            updateDto.setIsbn("9780747532699");
+            long orwellId = objectMapper.readTree(mockMvc.perform(get("/api/books/isbn/9780451524935")
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+            mockMvc.perform(put("/api/books/" + orwellId)
+                            .header("Authorization", "Bearer " + adminToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(updateDto)))
+                    .andExpect(status().isConflict());
+        }
+
         @Test
         void testUpdateNonExistingBook() throws Exception {
             long nonExistingId = 999999L;
@@ -341,6 +343,9 @@ public class BookManagementIntegrationTest {
             mockMvc.perform(delete("/api/books/" + bookId)
                             .header("Authorization", "Bearer " + userToken))
                     .andExpect(status().isForbidden());
+            mockMvc.perform(delete("/api/books/" + bookId)
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isNotFound());
         }
     }
 
@@ -361,4 +366,4 @@ public class BookManagementIntegrationTest {
                     .andExpect(status().isUnauthorized());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookPatchIntegrationTest extends IntegrationTestSupport {
+
+    @Test
+    void testPatchBookChangesOnlyGivenFields() throws Exception {
+        long orwellId = objectMapper.readTree(mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"Nineteen Eighty-Four\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Book updated successfully."));
+        mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Nineteen Eighty-Four"))
+                .andExpect(jsonPath("$.author").value("George Orwell"))
+                .andExpect(jsonPath("$.isbn").value("9780451524935"));
+
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"author\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"id\": 5}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"isbn\": \"9780747532699\"}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/books/999999")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"Nowhere\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"Nope\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testConditionalWritesRejectStaleETags() throws Exception {
+        long orwellId = objectMapper.readTree(mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        String staleETag = mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andReturn().getResponse().getHeader("ETag");
+
+        BookRequestDTO updateDto = new BookRequestDTO();
+        updateDto.setTitle("Nineteen Eighty-Four");
+        updateDto.setAuthor("George Orwell");
+        updateDto.setPublishedDate(LocalDate.of(1949, 6, 8));
+        updateDto.setIsbn("9780451524935");
+        mockMvc.perform(put("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", staleETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        String currentETag = mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(currentETag).isNotEqualTo(staleETag);
+
+        mockMvc.perform(put("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", staleETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", staleETag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"Animal Farm\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", "W/" + currentETag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/books/999999")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", currentETag))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", currentETag)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"1984\"}"))
+                .andExpect(status().isOk());
+        String patchedETag = mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(jsonPath("$.title").value("1984"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(patchedETag).isNotEqualTo(currentETag);
+
+        mockMvc.perform(delete("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", currentETag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", patchedETag))
+                .andExpect(status().isOk());
+    }
+}
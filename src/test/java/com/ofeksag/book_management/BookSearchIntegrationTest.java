@@ -0,0 +1,31 @@
+package com.ofeksag.book_management;
+
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookSearchIntegrationTest extends IntegrationTestSupport {
+
+    @Test
+    void testSearchBooksByTitleAndAuthorPrefix() throws Exception {
+        mockMvc.perform(get("/api/books/search")
+                        .param("q", "ORW 198")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].isbn").value("9780451524935"));
+
+        mockMvc.perform(get("/api/books/search")
+                        .param("q", "orwell mockingbird")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(get("/api/books/search")
+                        .param("q", " - ")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isBadRequest());
+    }
+}
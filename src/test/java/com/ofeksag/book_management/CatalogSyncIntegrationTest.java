@@ -0,0 +1,146 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.dto.BookRequestDTO;
+import com.ofeksag.book_management.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogSyncIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Value("${books.catalog.sync-interval}")
+    private Duration catalogSyncInterval;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testConditionalGetReturnsNotModifiedUntilCatalogChanges() throws Exception {
+        // The catalog change is published as its transaction commits, so this test commits and cleans up.
+        try {
+            assertConditionalGetReturnsNotModifiedUntilCatalogChanges();
+        } finally {
+            bookRepository.findByIsbn("6666666666666").ifPresent(bookRepository::delete);
+        }
+    }
+
+    private void assertConditionalGetReturnsNotModifiedUntilCatalogChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String eTag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        BookRequestDTO bookDto = new BookRequestDTO();
+        bookDto.setTitle("Catalog Change");
+        bookDto.setAuthor("Test Author");
+        bookDto.setPublishedDate(LocalDate.of(2024, 1, 1));
+        bookDto.setIsbn("6666666666666");
+        mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookDto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testPatchThatChangesNothingKeepsCatalogVersion() throws Exception {
+        String catalogETag = mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getHeader("ETag");
+        long orwellId = objectMapper.readTree(mockMvc.perform(get("/api/books/isbn/9780451524935")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(patch("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"1984\", \"author\": \"George Orwell\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", catalogETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testWriteOnAnotherNodeChangesCatalogETagAndRefreshesCachedPages() throws Exception {
+        String eTag = mockMvc.perform(get("/api/books")
+                        .param("limit", "1000")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Another node inserts a book and records the change; this node's caches know nothing of it.
+        jdbcTemplate.update("insert into book (id, title, author, published_date, isbn, version) "
+                + "values (?, ?, ?, ?, ?, 0)", 900_000_001L, "Other Node", "Test Author",
+                LocalDate.of(2024, 1, 1), "6666666666667");
+        jdbcTemplate.update("insert into catalog_change (book_id) values (null)");
+        Thread.sleep(catalogSyncInterval.toMillis());
+
+        mockMvc.perform(get("/api/books")
+                        .param("limit", "1000")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$[?(@.isbn == '6666666666667')]").exists());
+    }
+
+    @Test
+    void testWriteOnAnotherNodeRefreshesCachedBookById() throws Exception {
+        long orwellId = jdbcTemplate.queryForObject("select id from book where isbn = ?", Long.class,
+                "9780451524935");
+        String eTag = mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Another node renames the book and records the change; this node still has the old copy cached.
+        jdbcTemplate.update("update book set title = ?, version = version + 1 where id = ?",
+                "Nineteen Eighty-Four", orwellId);
+        jdbcTemplate.update("insert into catalog_change (book_id) values (?)", orwellId);
+        // The test transaction's persistence context would otherwise hand back the entity it already loaded.
+        entityManager.clear();
+        Thread.sleep(catalogSyncInterval.toMillis());
+
+        mockMvc.perform(get("/api/books/" + orwellId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$.title").value("Nineteen Eighty-Four"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.entity.Book;
+import com.ofeksag.book_management.repository.BookRepository;
+import com.ofeksag.book_management.utils.DataInitializer;
+import com.ofeksag.book_management.utils.SyntheticBookGenerator;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DatabaseSetupIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private DataInitializer dataInitializer;
+    @Autowired
+    private SyntheticBookGenerator syntheticBookGenerator;
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSeedingIsIdempotentAndSyntheticCatalogTopsUp() throws Exception {
+        long before = bookRepository.count();
+        dataInitializer.run();
+        assertThat(bookRepository.count()).isEqualTo(before);
+
+        assertThat(syntheticBookGenerator.generate(120)).isEqualTo(120);
+        assertThat(syntheticBookGenerator.generate(120)).isZero();
+        assertThat(syntheticBookGenerator.generate(130)).isEqualTo(10);
+        assertThat(bookRepository.count()).isEqualTo(before + 130);
+        assertThat(bookRepository.findByIsbn("9799000000004")).isPresent();
+
+        // A deleted synthetic book is filled back in and an ISBN taken by another book is skipped.
+        bookRepository.delete(bookRepository.findByIsbn("9799000000059").orElseThrow());
+        bookRepository.flush();
+        bookRepository.saveAndFlush(new Book("Not Synthetic", "Test Author", LocalDate.of(2024, 1, 1),
+                "9799000001308"));
+        assertThat(syntheticBookGenerator.generate(140)).isEqualTo(10);
+        assertThat(bookRepository.findByIsbn("9799000000059")).isPresent();
+        assertThat(bookRepository.findByIsbn("9799000001308").orElseThrow().getTitle()).isEqualTo("Not Synthetic");
+
+        // Ids the generator reserved never collide with ids the application assigns afterwards.
+        for (int i = 0; i < 2 * Book.ID_ALLOCATION_SIZE + 10; i++)
+            bookRepository.saveAndFlush(new Book("After Synthetic " + i, "Test Author", LocalDate.of(2024, 1, 1),
+                    String.format("5%012d", i)));
+
+        mockMvc.perform(post("/api/books")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "After Synthetic", "author": "Test Author",
+                                 "publishedDate": "2024-01-01", "isbn": "4444444444444"}
+                                """))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testMigrationsApplyAndEnforceUniqueIsbn() {
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString))
+                .contains("1", "2");
+        assertThat(flyway.info().pending()).isEmpty();
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "insert into book (id, title, author, published_date, isbn, version) values (?, ?, ?, ?, ?, 0)",
+                -1L, "Duplicate", "Test Author", LocalDate.of(2024, 1, 1), "9780747532699"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
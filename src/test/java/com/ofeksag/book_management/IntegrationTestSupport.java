@@ -0,0 +1,57 @@
+package com.ofeksag.book_management;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Shared setup for the API integration tests: a MockMvc client, tokens for the seeded admin and user, and a
+ * transaction per test that is rolled back afterwards. Classes that change properties or beans get their own
+ * application context, so keep such overrides on the class that needs them.
+ */
+@SpringBootTest(properties = "jwt.keyring.generate=true")
+@AutoConfigureMockMvc
+@Transactional
+abstract class IntegrationTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    protected String adminToken;
+    protected String userToken;
+
+    @BeforeEach
+    void setup() throws Exception {
+        adminToken = obtainToken("admin", "pass");
+        userToken = obtainToken("user", "pass");
+    }
+
+    protected String obtainToken(String username, String password) throws Exception {
+        String loginPayload = String.format("""
+                {
+                  "username": "%s",
+                  "password": "%s"
+                }
+                """, username, password);
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginPayload))
+                .andExpect(status().isOk())
+                .andReturn();
+        String response = result.getResponse().getContentAsString();
+        JsonNode jsonNode = objectMapper.readTree(response);
+        return jsonNode.get("token").asText();
+    }
+}
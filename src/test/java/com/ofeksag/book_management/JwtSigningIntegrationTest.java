@@ -0,0 +1,35 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.exception.JwtDeserializationException;
+import com.ofeksag.book_management.utils.JwtKeyring;
+import com.ofeksag.book_management.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwtSigningIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private JwtKeyring jwtKeyring;
+
+    @Test
+    void testTokensAreSignedWithKeyringAndLegacyHmacTokensAreRejected() throws Exception {
+        String header = new String(java.util.Base64.getUrlDecoder().decode(userToken.split("\\.")[0]));
+        assertThat(header).contains("\"alg\":\"ES256\"").contains("\"kid\":\"key-1\"");
+
+        String legacyToken = new JwtUtil(86_400_000L, 10).generateToken("user");
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + legacyToken))
+                .andExpect(status().isUnauthorized());
+
+        JwtUtil withinWindow = new JwtUtil(86_400_000L, 10, "ES256", jwtKeyring, "2999-01-01T00:00:00Z");
+        assertThat(withinWindow.extractUsername(legacyToken)).isEqualTo("user");
+        JwtUtil afterWindow = new JwtUtil(86_400_000L, 10, "ES256", jwtKeyring, "2020-01-01T00:00:00Z");
+        assertThatThrownBy(() -> afterWindow.extractUsername(legacyToken))
+                .isInstanceOf(JwtDeserializationException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ofeksag.book_management;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureObservability
+class ObservabilityIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testPrometheusScrapeExposesRequestTimings() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(scrape)
+                .contains("books_service_seconds_bucket")
+                .contains("auth_jwt_verify_seconds_bucket")
+                .contains("hikaricp_connections_acquire_seconds_bucket")
+                .contains("hikaricp_connections_usage_seconds_bucket")
+                .contains("hibernate_sessions_open_total");
+    }
+
+    @Test
+    void testConnectionPoolIsConfiguredFromProperties() throws Exception {
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        assertThat(pool.getPoolName()).isEqualTo("book-management");
+        assertThat(pool.getMinimumIdle()).isEqualTo(pool.getMaximumPoolSize());
+        assertThat(pool.getLeakDetectionThreshold()).isPositive();
+        assertThat(pool.getDataSourceProperties())
+                .containsEntry("prepareThreshold", "3")
+                .containsEntry("reWriteBatchedInserts", "true");
+    }
+
+    @Test
+    void testPasswordHashingIsTimed() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/auth.password.hash")
+                        .param("tag", "operation:matches")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value")
+                        .value(everyItem(greaterThanOrEqualTo(1.0))));
+    }
+}
@@ -0,0 +1,73 @@
+package com.ofeksag.book_management;
+
+import com.ofeksag.book_management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "security.token-version.ttl=200ms")
+class TokenRevocationIntegrationTest extends IntegrationTestSupport {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testRevokedTokenIsRejectedUntilNextLogin() throws Exception {
+        mockMvc.perform(post("/auth/users/user/revoke")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/auth/users/user/revoke")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + obtainToken("user", "pass")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/users/nobody/revoke")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCachedTokenIsRejectedAfterRevocation() throws Exception {
+        // The first request leaves the verified token in JwtUtil's cache.
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/users/user/revoke")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Revoked Token"));
+    }
+
+    @Test
+    void testRevocationOnAnotherNodeIsSeenAfterTokenVersionTtl() throws Exception {
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+
+        // Another node revokes by bumping the shared version without touching this node's cache.
+        userRepository.incrementTokenVersion("user");
+        Thread.sleep(300);
+
+        mockMvc.perform(get("/api/books")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isUnauthorized());
+    }
+}
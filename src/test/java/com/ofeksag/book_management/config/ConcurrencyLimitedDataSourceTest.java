@@ -0,0 +1,58 @@
+package com.ofeksag.book_management.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitedDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+    private final ConcurrencyLimitedDataSource dataSource =
+            new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(100));
+
+    @Test
+    void testPermitIsReleasedWhenConnectionFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("database down"));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("database down");
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void testPermitIsHeldUntilConnectionIsClosed() throws Exception {
+        Connection target = mock(Connection.class);
+        when(this.target.getConnection()).thenReturn(target);
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.availablePermits()).isZero();
+
+        connection.close();
+        connection.close();
+        verify(target).close();
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void testCallerGivesUpAfterAcquireTimeout() throws Exception {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        Connection held = dataSource.getConnection();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("No database permit available within PT0.1S");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+
+        held.close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ofeksag.book_management.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryListenerTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger("sql.slow");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final SlowQueryListener listener = new SlowQueryListener(Duration.ofMillis(100), 1.0);
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void testQueryOverThresholdIsLogged() {
+        listener.afterQuery(execution(150), List.of(new QueryInfo("select * from book where isbn = ?")));
+
+        assertThat(appender.list).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage())
+                        .startsWith("Slow query:")
+                        .contains("select * from book where isbn = ?"));
+    }
+
+    @Test
+    void testFastQueryIsNotLogged() {
+        listener.afterQuery(execution(99), List.of(new QueryInfo("select * from book where isbn = ?")));
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    private static ExecutionInfo execution(long elapsedMs) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setDataSourceName("dataSource");
+        execution.setStatementType(StatementType.PREPARED);
+        execution.setSuccess(true);
+        execution.setElapsedTime(elapsedMs);
+        return execution;
+    }
+}
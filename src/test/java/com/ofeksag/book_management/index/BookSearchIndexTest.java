@@ -0,0 +1,44 @@
+package com.ofeksag.book_management.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+    private final BookSearchIndex index = new BookSearchIndex(null, null);
+
+    @Test
+    void testPrefixExpandingToManyTermsStillFindsEveryBook() {
+        for (long id = 1; id <= 300; id++)
+            index.index(id, String.format("Volume%03d", id), "Test Author");
+        index.index(301, "Unrelated", "Other Writer");
+
+        assertThat(index.search("volume", 1000)).containsExactlyElementsOf(LongStream.rangeClosed(1, 300).boxed().toList());
+        assertThat(index.search("volume12", 1000)).containsExactly(120L, 121L, 122L, 123L, 124L, 125L, 126L, 127L,
+                128L, 129L);
+        assertThat(index.search("vo writer", 1000)).isEmpty();
+    }
+
+    @Test
+    void testSingleCharacterTokensOnlyFilter() {
+        index.index(1, "Harry Potter", "J. K. Rowling");
+        index.index(2, "Kafka on the Shore", "Haruki Murakami");
+
+        assertThat(index.search("j rowling", 10)).containsExactly(1L);
+        assertThat(index.search("k", 10)).isEmpty();
+    }
+
+    @Test
+    void testRemovedBookLeavesShortPrefixPostings() {
+        index.index(1, "Dune", "Frank Herbert");
+        index.index(2, "Dubliners", "James Joyce");
+        index.remove(1);
+
+        assertThat(index.search("du", 10)).isEqualTo(List.of(2L));
+        index.index(2, "Ulysses", "James Joyce");
+        assertThat(index.search("du", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ofeksag.book_management.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LegacyDatabaseMigrationTest {
+
+    @Test
+    void testMigratingSchemaWithDuplicateIsbnsKeepsOldestBook() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // The schema Hibernate's ddl-auto=update created before migrations existed, re-seeded on two starts.
+        jdbcTemplate.execute("""
+                create table book (
+                    id bigint generated by default as identity primary key,
+                    author varchar(255), isbn varchar(255), published_date date, title varchar(255))
+                """);
+        jdbcTemplate.execute("""
+                create table users (
+                    id bigint generated by default as identity primary key,
+                    password varchar(255) not null, username varchar(255) not null unique)
+                """);
+        jdbcTemplate.execute("create table user_roles (user_id bigint not null, role varchar(255))");
+        for (int start = 0; start < 2; start++) {
+            insertBook(jdbcTemplate, "1984", "9780451524935");
+            insertBook(jdbcTemplate, "Dune", "9780441013593");
+        }
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .javaMigrations(new BookSequenceMigration())
+                .load()
+                .migrate();
+
+        assertThat(jdbcTemplate.queryForList("select id from book order by id", Long.class)).containsExactly(1L, 2L);
+        assertThatThrownBy(() -> insertBook(jdbcTemplate, "1984", "9780451524935"))
+                .hasMessageContaining("UX_BOOK_ISBN");
+    }
+
+    private static void insertBook(JdbcTemplate jdbcTemplate, String title, String isbn) {
+        jdbcTemplate.update("insert into book (title, author, published_date, isbn) values (?, ?, ?, ?)",
+                title, "Test Author", LocalDate.of(2024, 1, 1), isbn);
+    }
+}
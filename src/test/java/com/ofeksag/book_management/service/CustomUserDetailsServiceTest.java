@@ -0,0 +1,72 @@
+package com.ofeksag.book_management.service;
+
+import com.ofeksag.book_management.entity.User;
+import com.ofeksag.book_management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService userDetailsService =
+            new CustomUserDetailsService(userRepository, 100, Duration.ofMinutes(5));
+
+    @Test
+    void testCacheHitSkipsRepositoryAndReturnsCopy() {
+        when(userRepository.findByUsername("user"))
+                .thenReturn(Optional.of(new User("user", "hash", Set.of("ROLE_USER"))));
+
+        UserDetails first = userDetailsService.loadUserByUsername("user");
+        UserDetails second = userDetailsService.loadUserByUsername("user");
+
+        verify(userRepository, times(1)).findByUsername("user");
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("hash");
+    }
+
+    @Test
+    void testPasswordChangeIsSeenAfterEviction() {
+        when(userRepository.findByUsername("user"))
+                .thenReturn(Optional.of(new User("user", "old-hash", Set.of("ROLE_USER"))));
+        userDetailsService.loadUserByUsername("user");
+
+        when(userRepository.findByUsername("user"))
+                .thenReturn(Optional.of(new User("user", "new-hash", Set.of("ROLE_USER"))));
+        assertThat(userDetailsService.loadUserByUsername("user").getPassword()).isEqualTo("old-hash");
+
+        userDetailsService.evictUser("user");
+        assertThat(userDetailsService.loadUserByUsername("user").getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void testRoleChangeIsSeenAfterRevocation() {
+        when(userRepository.findByUsername("user"))
+                .thenReturn(Optional.of(new User("user", "hash", Set.of("ROLE_USER"))));
+        assertThat(roles(userDetailsService.loadUserByUsername("user"))).containsExactly("ROLE_USER");
+
+        when(userRepository.findByUsername("user"))
+                .thenReturn(Optional.of(new User("user", "hash", Set.of("ROLE_ADMIN"))));
+        when(userRepository.incrementTokenVersion("user")).thenReturn(1);
+        when(userRepository.findTokenVersion("user")).thenReturn(Optional.of(1L));
+        new TokenVersionStore(userRepository, userDetailsService, 100, Duration.ofMinutes(5)).revoke("user");
+
+        assertThat(roles(userDetailsService.loadUserByUsername("user"))).containsExactly("ROLE_ADMIN");
+    }
+
+    private static Set<String> roles(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+}
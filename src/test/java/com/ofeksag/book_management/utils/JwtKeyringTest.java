@@ -0,0 +1,28 @@
+package com.ofeksag.book_management.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyringTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testKeyringIsOnlyGeneratedWhenEnabled() throws Exception {
+        assertThatThrownBy(() -> new JwtKeyring(directory.toString(), "key-1", false))
+                .isInstanceOf(IllegalStateException.class);
+
+        new JwtKeyring(directory.toString(), "key-1", true);
+        assertThat(Files.getPosixFilePermissions(directory.resolve("key-1.pem")))
+                .containsExactlyInAnyOrder(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+        assertThat(new JwtKeyring(directory.toString(), "key-1", false).getSigningKey()).isNotNull();
+    }
+}
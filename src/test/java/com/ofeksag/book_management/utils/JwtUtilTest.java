@@ -0,0 +1,54 @@
+package com.ofeksag.book_management.utils;
+
+import com.ofeksag.book_management.exception.JwtDeserializationException;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    @TempDir
+    Path keys;
+
+    private JwtKeyring keyring;
+
+    @BeforeEach
+    void setup() {
+        keyring = new JwtKeyring(keys.toString(), "key-1", true);
+    }
+
+    @Test
+    void testCachedLegacyTokenIsRejectedOnceLegacyWindowCloses() throws Exception {
+        String legacyToken = new JwtUtil(86_400_000L, 10).generateToken("user");
+        JwtUtil jwtUtil = new JwtUtil(86_400_000L, 10, "ES256", keyring, Instant.now().plusMillis(500).toString());
+
+        assertThat(jwtUtil.extractUsername(legacyToken)).isEqualTo("user");
+        Thread.sleep(600);
+
+        assertThatThrownBy(() -> jwtUtil.extractUsername(legacyToken))
+                .isInstanceOf(JwtDeserializationException.class);
+    }
+
+    @Test
+    void testCachedTokenIsRejectedOnceExpired() throws Exception {
+        // Expirations are stored in whole seconds, so the token expires between 0.5 and 1.5 seconds from now.
+        JwtUtil jwtUtil = new JwtUtil(1_500L, 10, "ES256", keyring, "");
+        String token = jwtUtil.generateToken("user", List.of("ROLE_USER"), 0);
+
+        Claims claims = jwtUtil.extractAllClaims(token);
+        assertThat(jwtUtil.validateToken(claims, "user")).isTrue();
+        Thread.sleep(1_600);
+
+        assertThatThrownBy(() -> jwtUtil.extractAllClaims(token))
+                .isInstanceOf(JwtDeserializationException.class)
+                .hasMessageContaining("expired");
+    }
+}